@@ -15,6 +15,7 @@ val jetbrainsAnnotationsVersion: String by project.extra
 val lombokVersion: String by project.extra
 val jsonVersion: String by project.extra
 val fastUtilVersion: String by project.extra
+val junitVersion: String by project.extra
 dependencies {
     implementation("org.jetbrains:annotations:${jetbrainsAnnotationsVersion}")
     implementation("org.projectlombok:lombok:${lombokVersion}")
@@ -25,6 +26,11 @@ dependencies {
     implementation("org.json:json:${jsonVersion}")
 
     implementation("it.unimi.dsi:fastutil:${fastUtilVersion}")
+
+    testAnnotationProcessor(project(":processor"))
+    testImplementation(platform("org.junit:junit-bom:${junitVersion}"))
+    testImplementation("org.junit.jupiter:junit-jupiter")
+    testRuntimeOnly("org.junit.platform:junit-platform-launcher")
 }
 
 java {
@@ -65,4 +71,8 @@ tasks {
 
         archiveFileName.set("FastConfig-${project.version}")
     }
+
+    test {
+        useJUnitPlatform()
+    }
 }
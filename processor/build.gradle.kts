@@ -0,0 +1,57 @@
+plugins {
+    `java-library`
+    `maven-publish`
+}
+
+group = "com.uroria"
+version = rootProject.version
+
+repositories {
+    mavenCentral()
+}
+
+val junitVersion: String by project.extra
+dependencies {
+    // The tests compile fixtures against the annotations of the library
+    testImplementation(project(":"))
+    testImplementation(platform("org.junit:junit-bom:${junitVersion}"))
+    testImplementation("org.junit.jupiter:junit-jupiter")
+    testRuntimeOnly("org.junit.platform:junit-platform-launcher")
+}
+
+java {
+    toolchain {
+        languageVersion.set(JavaLanguageVersion.of(17))
+    }
+}
+
+tasks {
+    test {
+        useJUnitPlatform()
+    }
+}
+
+publishing {
+    publications {
+        create<MavenPublication>("maven") {
+            from(components["java"])
+            artifactId = "${rootProject.name}-processor"
+        }
+    }
+
+    repositories {
+        maven {
+            url = uri("${System.getenv("CI_API_V4_URL")}/projects/660/packages/maven")
+            name = "GitLab"
+            if (System.getenv("CI") == "true") {
+                credentials(HttpHeaderCredentials::class) {
+                    name = "Private-Token"
+                    value = System.getenv("U_PIPELINE_DEFAULT_TOKEN")
+                }
+            }
+            authentication {
+                create<HttpHeaderAuthentication>("header")
+            }
+        }
+    }
+}
@@ -0,0 +1,284 @@
+package com.uroria.fastconfig.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Generates a value class, a {@code ConfSerializable} and a typed accessor for every interface annotated with
+ * {@code com.uroria.fastconfig.ConfigType}. The generated code converts values with plain casts and key paths are
+ * built once as constants, so reading and writing a typed config needs no reflection at runtime.
+ * <p>
+ * Enable it with {@code annotationProcessor(project(":processor"))}.
+ */
+@SupportedAnnotationTypes(ConfigTypeProcessor.CONFIG_TYPE)
+public final class ConfigTypeProcessor extends AbstractProcessor {
+    static final String CONFIG_TYPE = "com.uroria.fastconfig.ConfigType";
+    private static final String KEY = CONFIG_TYPE + ".Key";
+
+    private Elements elements;
+    private Types types;
+    private Filer filer;
+    private Messager messager;
+
+    @Override
+    public synchronized void init(ProcessingEnvironment processingEnv) {
+        super.init(processingEnv);
+        this.elements = processingEnv.getElementUtils();
+        this.types = processingEnv.getTypeUtils();
+        this.filer = processingEnv.getFiler();
+        this.messager = processingEnv.getMessager();
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (TypeElement annotation : annotations) {
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                if (element.getKind() != ElementKind.INTERFACE) {
+                    error(element, "@ConfigType is only supported on interfaces");
+                    continue;
+                }
+                generate((TypeElement) element);
+            }
+        }
+        return true;
+    }
+
+    private void generate(TypeElement type) {
+        if (type.getModifiers().contains(Modifier.PRIVATE)) {
+            error(type, "@ConfigType interfaces must not be private");
+            return;
+        }
+        if (!type.getTypeParameters().isEmpty()) {
+            error(type, "@ConfigType interfaces must not be generic");
+            return;
+        }
+        List<Property> properties = properties(type);
+        if (properties == null) return;
+
+        String packageName = this.elements.getPackageOf(type).getQualifiedName().toString();
+        SourceGenerator generator = new SourceGenerator(packageName, type.getQualifiedName().toString(),
+                type.getSimpleName().toString(), baseName(type), properties);
+        write(type, packageName, generator.valueName(), generator.value());
+        write(type, packageName, generator.serializableName(), generator.serializable());
+        write(type, packageName, generator.accessorName(), generator.accessor());
+    }
+
+    /**
+     * Collects the abstract getters in declaration order, own methods before inherited ones.
+     *
+     * @return null if any getter is invalid, the errors are reported already
+     */
+    private List<Property> properties(TypeElement type) {
+        List<Property> properties = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        Set<String> keys = new HashSet<>();
+        List<TypeElement> hierarchy = new ArrayList<>();
+        hierarchy(type, hierarchy);
+        boolean valid = true;
+        for (TypeElement current : hierarchy) {
+            for (ExecutableElement method : ElementFilter.methodsIn(current.getEnclosedElements())) {
+                Set<Modifier> modifiers = method.getModifiers();
+                if (modifiers.contains(Modifier.STATIC) || modifiers.contains(Modifier.PRIVATE)) continue;
+                String name = method.getSimpleName().toString();
+                // Overridden methods of parent interfaces come later and are skipped
+                if (!seen.add(signature(method)) || !modifiers.contains(Modifier.ABSTRACT)) continue;
+                if (!method.getParameters().isEmpty()) {
+                    // The generated value class implements equals, nothing else could be implemented
+                    if (isEquals(method)) continue;
+                    error(method, "@ConfigType methods must not have parameters, make them default methods");
+                    valid = false;
+                    continue;
+                }
+                if (name.equals("hashCode") || name.equals("toString")) continue;
+                if (!method.getTypeParameters().isEmpty()) {
+                    error(method, "@ConfigType getters must not be generic");
+                    valid = false;
+                    continue;
+                }
+                ValueType valueType = valueType(method.getReturnType());
+                if (valueType == null) {
+                    error(method, "Unsupported @ConfigType getter type " + method.getReturnType());
+                    valid = false;
+                    continue;
+                }
+                String key = key(method);
+                String problem = key.isEmpty() ? "@ConfigType.Key must not be empty"
+                        // The accessor resolves keys as paths, a dot would nest them there but not in the serializable
+                        : key.indexOf('.') >= 0 ? "@ConfigType.Key must not contain dots, use a nested @ConfigType"
+                        : !keys.add(key) ? "Duplicate key " + key : null;
+                if (problem != null) {
+                    error(method, problem);
+                    valid = false;
+                    continue;
+                }
+                properties.add(new Property(name, key, valueType));
+            }
+        }
+        return valid ? properties : null;
+    }
+
+    private String signature(ExecutableElement method) {
+        StringBuilder builder = new StringBuilder(method.getSimpleName()).append('(');
+        for (VariableElement parameter : method.getParameters()) {
+            builder.append(this.types.erasure(parameter.asType())).append(';');
+        }
+        return builder.append(')').toString();
+    }
+
+    private static boolean isEquals(ExecutableElement method) {
+        if (!method.getSimpleName().contentEquals("equals") || method.getParameters().size() != 1) return false;
+        TypeMirror parameter = method.getParameters().get(0).asType();
+        return parameter.getKind() == TypeKind.DECLARED && asType(parameter).getQualifiedName().contentEquals("java.lang.Object");
+    }
+
+    private void hierarchy(TypeElement type, List<TypeElement> hierarchy) {
+        if (hierarchy.contains(type)) return;
+        hierarchy.add(type);
+        for (TypeMirror parent : type.getInterfaces()) {
+            hierarchy(asType(parent), hierarchy);
+        }
+    }
+
+    private ValueType valueType(TypeMirror type) {
+        switch (type.getKind()) {
+            case INT:
+                return ValueType.number("int", true, "intValue", "Integer.parseInt", "0");
+            case LONG:
+                return ValueType.number("long", true, "longValue", "Long.parseLong", "0L");
+            case DOUBLE:
+                return ValueType.number("double", true, "doubleValue", "Double.parseDouble", "0D");
+            case FLOAT:
+                return ValueType.number("float", true, "floatValue", "Float.parseFloat", "0F");
+            case SHORT:
+                return ValueType.number("short", true, "shortValue", "Short.parseShort", "(short) 0");
+            case BYTE:
+                return ValueType.number("byte", true, "byteValue", "Byte.parseByte", "(byte) 0");
+            case BOOLEAN:
+                return ValueType.bool(true);
+            case DECLARED:
+                return declaredType((DeclaredType) type);
+            default:
+                return null;
+        }
+    }
+
+    private ValueType declaredType(DeclaredType type) {
+        TypeElement element = asType(type);
+        String name = element.getQualifiedName().toString();
+        switch (name) {
+            case "java.lang.Integer":
+                return ValueType.number(name, false, "intValue", "Integer.parseInt", null);
+            case "java.lang.Long":
+                return ValueType.number(name, false, "longValue", "Long.parseLong", null);
+            case "java.lang.Double":
+                return ValueType.number(name, false, "doubleValue", "Double.parseDouble", null);
+            case "java.lang.Float":
+                return ValueType.number(name, false, "floatValue", "Float.parseFloat", null);
+            case "java.lang.Short":
+                return ValueType.number(name, false, "shortValue", "Short.parseShort", null);
+            case "java.lang.Byte":
+                return ValueType.number(name, false, "byteValue", "Byte.parseByte", null);
+            case "java.lang.Boolean":
+                return ValueType.bool(false);
+            case "java.lang.String":
+                return ValueType.string();
+            case "java.util.List":
+                if (type.getTypeArguments().size() != 1) return null;
+                TypeMirror argument = type.getTypeArguments().get(0);
+                if (argument.getKind() != TypeKind.DECLARED) return null;
+                ValueType elementType = declaredType((DeclaredType) argument);
+                // Nested lists would need a converter per level, keep them out until somebody needs them
+                if (elementType == null || elementType.kind == ValueType.Kind.LIST) return null;
+                return ValueType.list(elementType);
+        }
+        if (!type.getTypeArguments().isEmpty()) return null;
+        if (element.getKind() == ElementKind.ENUM) return ValueType.enumType(name);
+        if (element.getKind() == ElementKind.INTERFACE && annotation(element, CONFIG_TYPE) != null) {
+            String packageName = this.elements.getPackageOf(element).getQualifiedName().toString();
+            String prefix = packageName.isEmpty() ? "" : packageName + ".";
+            return ValueType.configType(name, prefix + baseName(element) + "Serializable");
+        }
+        return null;
+    }
+
+    private String key(ExecutableElement method) {
+        AnnotationMirror key = annotation(method, KEY);
+        if (key == null) return method.getSimpleName().toString();
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : key.getElementValues().entrySet()) {
+            if (entry.getKey().getSimpleName().contentEquals("value")) {
+                return String.valueOf(entry.getValue().getValue());
+            }
+        }
+        return "";
+    }
+
+    private void write(TypeElement origin, String packageName, String simpleName, String source) {
+        String name = packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+        try (Writer writer = this.filer.createSourceFile(name, origin).openWriter()) {
+            writer.write(source);
+        } catch (IOException exception) {
+            error(origin, "Could not write " + name + ": " + exception.getMessage());
+        }
+    }
+
+    private void error(Element element, String message) {
+        this.messager.printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+
+    /**
+     * The generated classes of a nested interface are prefixed with its enclosing types, {@code Outer.Inner}
+     * becomes {@code Outer_InnerValue}.
+     */
+    private static String baseName(TypeElement type) {
+        StringBuilder builder = new StringBuilder(type.getSimpleName());
+        for (Element current = type.getEnclosingElement(); current instanceof TypeElement;
+             current = current.getEnclosingElement()) {
+            builder.insert(0, current.getSimpleName() + "_");
+        }
+        return builder.toString();
+    }
+
+    private static TypeElement asType(TypeMirror type) {
+        return (TypeElement) ((DeclaredType) type).asElement();
+    }
+
+    private static AnnotationMirror annotation(Element element, String name) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            TypeElement type = (TypeElement) mirror.getAnnotationType().asElement();
+            if (type.getQualifiedName().contentEquals(name)) return mirror;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,35 @@
+package com.uroria.fastconfig.processor;
+
+/**
+ * One getter of a {@code ConfigType} interface.
+ */
+final class Property {
+    final String name;
+    final String key;
+    final ValueType type;
+
+    Property(String name, String key, ValueType type) {
+        this.name = name;
+        this.key = key;
+        this.type = type;
+    }
+
+    String capitalized() {
+        return Character.toUpperCase(this.name.charAt(0)) + this.name.substring(1);
+    }
+
+    /**
+     * The name of the key path constant, {@code maxPlayers} becomes {@code MAX_PLAYERS}.
+     */
+    String constant() {
+        StringBuilder builder = new StringBuilder(this.name.length() + 4);
+        for (int i = 0; i < this.name.length(); i++) {
+            char c = this.name.charAt(i);
+            if (Character.isUpperCase(c) && i > 0 && !Character.isUpperCase(this.name.charAt(i - 1))) {
+                builder.append('_');
+            }
+            builder.append(Character.toUpperCase(c));
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,331 @@
+package com.uroria.fastconfig.processor;
+
+import java.util.List;
+
+/**
+ * Emits the sources generated for one {@code ConfigType} interface. All conversions live in static methods of the
+ * serializable, the value class and the accessor only call into them, so the conversion of a getter exists once.
+ */
+final class SourceGenerator {
+    private static final String CONF_SERIALIZABLE = "com.uroria.fastconfig.internal.utils.serialize.ConfSerializable";
+    private static final String CONFIGURATION = "com.uroria.fastconfig.Configuration";
+    private static final String KEY_PATH = "com.uroria.fastconfig.KeyPath";
+    private static final String GENERATED = "@javax.annotation.processing.Generated(\""
+            + ConfigTypeProcessor.class.getName() + "\")";
+
+    private final String packageName;
+    private final String type;
+    private final String simpleType;
+    private final String base;
+    private final List<Property> properties;
+
+    SourceGenerator(String packageName, String type, String simpleType, String base, List<Property> properties) {
+        this.packageName = packageName;
+        this.type = type;
+        this.simpleType = simpleType;
+        this.base = base;
+        this.properties = properties;
+    }
+
+    String valueName() {
+        return this.base + "Value";
+    }
+
+    String serializableName() {
+        return this.base + "Serializable";
+    }
+
+    String accessorName() {
+        return this.base + "Accessor";
+    }
+
+    String value() {
+        StringBuilder out = header();
+        String name = valueName();
+        out.append("public final class ").append(name).append(" implements ").append(this.type).append(" {\n");
+        for (Property property : this.properties) {
+            out.append("    private final ").append(property.type.name).append(' ').append(property.name).append(";\n");
+        }
+        out.append('\n');
+
+        out.append("    public ").append(name).append('(');
+        for (int i = 0; i < this.properties.size(); i++) {
+            Property property = this.properties.get(i);
+            if (i > 0) out.append(", ");
+            out.append(property.type.name).append(' ').append(property.name);
+        }
+        out.append(") {\n");
+        for (Property property : this.properties) {
+            out.append("        this.").append(property.name).append(" = ").append(property.name).append(";\n");
+        }
+        out.append("    }\n");
+
+        for (Property property : this.properties) {
+            out.append('\n');
+            out.append("    @Override\n");
+            out.append("    public ").append(property.type.name).append(' ').append(property.name).append("() {\n");
+            out.append("        return this.").append(property.name).append(";\n");
+            out.append("    }\n");
+        }
+
+        out.append('\n');
+        out.append("    @Override\n");
+        out.append("    public boolean equals(Object obj) {\n");
+        out.append("        if (this == obj) return true;\n");
+        out.append("        if (!(obj instanceof ").append(name).append(")) return false;\n");
+        if (this.properties.isEmpty()) {
+            out.append("        return true;\n");
+        } else {
+            out.append("        ").append(name).append(" other = (").append(name).append(") obj;\n");
+            out.append("        return ");
+            for (int i = 0; i < this.properties.size(); i++) {
+                Property property = this.properties.get(i);
+                if (i > 0) out.append("\n                && ");
+                out.append("java.util.Objects.equals(this.").append(property.name).append(", other.")
+                        .append(property.name).append(')');
+            }
+            out.append(";\n");
+        }
+        out.append("    }\n");
+
+        out.append('\n');
+        out.append("    @Override\n");
+        out.append("    public int hashCode() {\n");
+        out.append("        return java.util.Objects.hash(");
+        for (int i = 0; i < this.properties.size(); i++) {
+            if (i > 0) out.append(", ");
+            out.append("this.").append(this.properties.get(i).name);
+        }
+        out.append(");\n");
+        out.append("    }\n");
+
+        out.append('\n');
+        out.append("    @Override\n");
+        out.append("    public String toString() {\n");
+        out.append("        return \"").append(this.simpleType).append('{');
+        for (int i = 0; i < this.properties.size(); i++) {
+            Property property = this.properties.get(i);
+            out.append(i > 0 ? ", " : "").append(property.name).append("=\" + this.").append(property.name)
+                    .append(" + \"");
+        }
+        out.append("}\";\n");
+        out.append("    }\n");
+        out.append("}\n");
+        return out.toString();
+    }
+
+    String serializable() {
+        StringBuilder out = header();
+        String name = serializableName();
+        out.append("public final class ").append(name).append(" implements ").append(CONF_SERIALIZABLE)
+                .append('<').append(this.type).append("> {\n");
+        out.append("    public static final ").append(name).append(" INSTANCE = new ").append(name).append("();\n");
+        out.append('\n');
+        out.append("    @Override\n");
+        out.append("    public ").append(this.type).append(" deserialize(Object obj) {\n");
+        out.append("        java.util.Map<?, ?> map = (java.util.Map<?, ?>) obj;\n");
+        out.append("        return new ").append(valueName()).append('(');
+        for (int i = 0; i < this.properties.size(); i++) {
+            Property property = this.properties.get(i);
+            out.append(i > 0 ? ",\n                " : "");
+            out.append("read").append(property.capitalized()).append("(map.get(\"").append(escape(property.key))
+                    .append("\"))");
+        }
+        out.append(");\n");
+        out.append("    }\n");
+
+        out.append('\n');
+        out.append("    @Override\n");
+        out.append("    public Object serialize(").append(this.type).append(" value) {\n");
+        out.append("        java.util.Map<String, Object> map = new java.util.LinkedHashMap<>(")
+                .append(capacity(this.properties.size())).append(");\n");
+        for (Property property : this.properties) {
+            out.append("        put(map, \"").append(escape(property.key)).append("\", write")
+                    .append(property.capitalized()).append("(value.").append(property.name).append("()));\n");
+        }
+        out.append("        return map;\n");
+        out.append("    }\n");
+
+        out.append('\n');
+        out.append("    @Override\n");
+        out.append("    public Class<").append(this.type).append("> getClazz() {\n");
+        out.append("        return ").append(this.type).append(".class;\n");
+        out.append("    }\n");
+
+        for (Property property : this.properties) {
+            read(out, "read" + property.capitalized(), property.type);
+            write(out, "write" + property.capitalized(), property.type);
+        }
+
+        out.append('\n');
+        out.append("    private static void put(java.util.Map<String, Object> map, String key, Object value) {\n");
+        out.append("        if (value != null) map.put(key, value);\n");
+        out.append("    }\n");
+        out.append("}\n");
+        return out.toString();
+    }
+
+    String accessor() {
+        StringBuilder out = header();
+        String name = accessorName();
+        String serializable = serializableName();
+        out.append("public final class ").append(name).append(" {\n");
+        for (Property property : this.properties) {
+            out.append("    public static final ").append(KEY_PATH).append(' ').append(property.constant())
+                    .append(" = ").append(KEY_PATH).append(".of(\"").append(escape(property.key)).append("\");\n");
+        }
+        if (!this.properties.isEmpty()) out.append('\n');
+        out.append("    private final ").append(CONFIGURATION).append(" config;\n");
+        for (Property property : this.properties) {
+            out.append("    private final ").append(KEY_PATH).append(' ').append(property.name).append("Path;\n");
+        }
+
+        out.append('\n');
+        out.append("    public ").append(name).append('(').append(CONFIGURATION).append(" config) {\n");
+        out.append("        this(config, (").append(KEY_PATH).append(") null);\n");
+        out.append("    }\n");
+        out.append('\n');
+        out.append("    public ").append(name).append('(').append(CONFIGURATION).append(" config, String section) {\n");
+        out.append("        this(config, section == null ? null : ").append(KEY_PATH).append(".of(section));\n");
+        out.append("    }\n");
+        out.append('\n');
+        out.append("    public ").append(name).append('(').append(CONFIGURATION).append(" config, ")
+                .append(KEY_PATH).append(" section) {\n");
+        out.append("        this.config = java.util.Objects.requireNonNull(config, \"config\");\n");
+        for (Property property : this.properties) {
+            String constant = property.constant();
+            out.append("        this.").append(property.name).append("Path = section == null ? ").append(constant)
+                    .append(" : section.resolve(").append(constant).append(");\n");
+        }
+        out.append("    }\n");
+
+        for (Property property : this.properties) {
+            String capitalized = property.capitalized();
+            out.append('\n');
+            out.append("    public ").append(property.type.name).append(' ').append(property.name).append("() {\n");
+            out.append("        return ").append(serializable).append(".read").append(capitalized)
+                    .append("(this.config.get(this.").append(property.name).append("Path));\n");
+            out.append("    }\n");
+            out.append('\n');
+            out.append("    public void ").append(property.name).append('(').append(property.type.name)
+                    .append(" value) {\n");
+            out.append("        this.config.set(this.").append(property.name).append("Path, ").append(serializable)
+                    .append(".write").append(capitalized).append("(value));\n");
+            out.append("    }\n");
+        }
+        out.append("}\n");
+        return out.toString();
+    }
+
+    private StringBuilder header() {
+        StringBuilder out = new StringBuilder(4096);
+        if (!this.packageName.isEmpty()) out.append("package ").append(this.packageName).append(";\n\n");
+        out.append(GENERATED).append('\n');
+        return out;
+    }
+
+    /**
+     * Emits {@code static T method(Object raw)}, converting a raw config value. Missing values become
+     * {@code null}, or zero and {@code false} for primitives.
+     */
+    private static void read(StringBuilder out, String method, ValueType type) {
+        out.append('\n');
+        out.append("    static ").append(type.name).append(' ').append(method).append("(Object raw) {\n");
+        switch (type.kind) {
+            case NUMBER:
+                out.append("        if (raw instanceof Number) return ((Number) raw).").append(type.unbox).append("();\n");
+                out.append("        if (raw != null) return ").append(type.parse).append("(raw.toString().trim());\n");
+                out.append("        return ").append(type.primitive ? type.zero : "null").append(";\n");
+                break;
+            case BOOLEAN:
+                out.append("        if (raw instanceof Boolean) return (Boolean) raw;\n");
+                out.append("        if (raw != null) return Boolean.parseBoolean(raw.toString().trim());\n");
+                out.append("        return ").append(type.primitive ? "false" : "null").append(";\n");
+                break;
+            case STRING:
+                out.append("        return raw == null ? null : raw.toString();\n");
+                break;
+            case ENUM:
+                out.append("        return raw == null ? null : ").append(type.name).append(".valueOf(raw.toString());\n");
+                break;
+            case CONFIG_TYPE:
+                out.append("        return raw == null ? null : ").append(type.serializable)
+                        .append(".INSTANCE.deserialize(raw);\n");
+                break;
+            case LIST:
+                out.append("        if (raw == null) return null;\n");
+                out.append("        java.util.List<?> source = (java.util.List<?>) raw;\n");
+                out.append("        ").append(type.name).append(" list = new java.util.ArrayList<>(source.size());\n");
+                out.append("        for (Object element : source) {\n");
+                out.append("            list.add(").append(method).append("Element(element));\n");
+                out.append("        }\n");
+                out.append("        return list;\n");
+                break;
+        }
+        out.append("    }\n");
+        if (type.kind == ValueType.Kind.LIST) read(out, method + "Element", type.element);
+    }
+
+    /**
+     * Emits {@code static Object method(T value)}, converting a value into what the config stores.
+     */
+    private static void write(StringBuilder out, String method, ValueType type) {
+        out.append('\n');
+        out.append("    static Object ").append(method).append('(').append(type.name).append(" value) {\n");
+        switch (type.kind) {
+            case NUMBER:
+            case BOOLEAN:
+            case STRING:
+                out.append("        return value;\n");
+                break;
+            case ENUM:
+                out.append("        return value == null ? null : value.name();\n");
+                break;
+            case CONFIG_TYPE:
+                out.append("        return value == null ? null : ").append(type.serializable)
+                        .append(".INSTANCE.serialize(value);\n");
+                break;
+            case LIST:
+                out.append("        if (value == null) return null;\n");
+                out.append("        java.util.List<Object> list = new java.util.ArrayList<>(value.size());\n");
+                out.append("        for (").append(type.element.name).append(" element : value) {\n");
+                out.append("            list.add(").append(method).append("Element(element));\n");
+                out.append("        }\n");
+                out.append("        return list;\n");
+                break;
+        }
+        out.append("    }\n");
+        if (type.kind == ValueType.Kind.LIST) write(out, method + "Element", type.element);
+    }
+
+    private static int capacity(int size) {
+        return Math.max(16, (int) (size / 0.75F) + 1);
+    }
+
+    private static String escape(String value) {
+        StringBuilder builder = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    builder.append("\\\"");
+                    break;
+                case '\\':
+                    builder.append("\\\\");
+                    break;
+                case '\n':
+                    builder.append("\\n");
+                    break;
+                case '\r':
+                    builder.append("\\r");
+                    break;
+                case '\t':
+                    builder.append("\\t");
+                    break;
+                default:
+                    builder.append(c);
+            }
+        }
+        return builder.toString();
+    }
+}
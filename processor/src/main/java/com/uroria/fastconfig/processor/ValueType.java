@@ -0,0 +1,67 @@
+package com.uroria.fastconfig.processor;
+
+/**
+ * The supported return types of a {@code ConfigType} getter, together with everything the generator needs to
+ * emit their conversion code.
+ */
+final class ValueType {
+    final Kind kind;
+    // Source name of the type, fully qualified
+    final String name;
+    final boolean primitive;
+    // NUMBER only
+    final String unbox;
+    final String parse;
+    final String zero;
+    // CONFIG_TYPE only, the fully qualified generated serializable
+    final String serializable;
+    // LIST only
+    final ValueType element;
+
+    private ValueType(Kind kind, String name, boolean primitive, String unbox, String parse, String zero,
+                      String serializable, ValueType element) {
+        this.kind = kind;
+        this.name = name;
+        this.primitive = primitive;
+        this.unbox = unbox;
+        this.parse = parse;
+        this.zero = zero;
+        this.serializable = serializable;
+        this.element = element;
+    }
+
+    static ValueType number(String name, boolean primitive, String unbox, String parse, String zero) {
+        return new ValueType(Kind.NUMBER, name, primitive, unbox, parse, zero, null, null);
+    }
+
+    static ValueType bool(boolean primitive) {
+        return new ValueType(Kind.BOOLEAN, primitive ? "boolean" : "java.lang.Boolean", primitive,
+                null, null, null, null, null);
+    }
+
+    static ValueType string() {
+        return new ValueType(Kind.STRING, "java.lang.String", false, null, null, null, null, null);
+    }
+
+    static ValueType enumType(String name) {
+        return new ValueType(Kind.ENUM, name, false, null, null, null, null, null);
+    }
+
+    static ValueType configType(String name, String serializable) {
+        return new ValueType(Kind.CONFIG_TYPE, name, false, null, null, null, serializable, null);
+    }
+
+    static ValueType list(ValueType element) {
+        return new ValueType(Kind.LIST, "java.util.List<" + element.name + ">", false, null, null, null,
+                null, element);
+    }
+
+    enum Kind {
+        NUMBER,
+        BOOLEAN,
+        STRING,
+        ENUM,
+        CONFIG_TYPE,
+        LIST
+    }
+}
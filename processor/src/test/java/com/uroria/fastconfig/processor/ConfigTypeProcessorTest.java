@@ -0,0 +1,101 @@
+package com.uroria.fastconfig.processor;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.ToolProvider;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConfigTypeProcessorTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void generatesThreeClasses() {
+        assertEquals(List.of(), compile("Simple", "@ConfigType public interface Simple { int port(); }"));
+        assertTrue(Files.exists(this.directory.resolve("demo/SimpleValue.java")));
+        assertTrue(Files.exists(this.directory.resolve("demo/SimpleSerializable.java")));
+        assertTrue(Files.exists(this.directory.resolve("demo/SimpleAccessor.java")));
+    }
+
+    @Test
+    void prefixesNestedInterfaces() {
+        assertEquals(List.of(), compile("Outer", "public interface Outer { @ConfigType interface Inner { String name(); } }"));
+        assertTrue(Files.exists(this.directory.resolve("demo/Outer_InnerValue.java")));
+    }
+
+    @Test
+    void allowsEqualsDeclarations() {
+        assertEquals(List.of(), compile("Equal", "@ConfigType public interface Equal { int port(); boolean equals(Object other); int hashCode(); }"));
+    }
+
+    @Test
+    void rejectsMethodsWithParameters() {
+        assertEquals(List.of("@ConfigType methods must not have parameters, make them default methods"),
+                compile("Scaled", "@ConfigType public interface Scaled { int port(); int scaled(int factor); }"));
+    }
+
+    @Test
+    void acceptsParametersImplementedByDefaults() {
+        assertEquals(List.of(), compile("Holder", "public interface Holder { interface Parent { int scaled(int factor); }"
+                + " interface Child extends Parent { default int scaled(int factor) { return factor; } }"
+                + " @ConfigType interface Leaf extends Child { int port(); } }"));
+    }
+
+    @Test
+    void rejectsDottedKeys() {
+        assertEquals(List.of("@ConfigType.Key must not contain dots, use a nested @ConfigType"),
+                compile("Dotted", "@ConfigType public interface Dotted { @ConfigType.Key(\"a.b\") int port(); }"));
+    }
+
+    @Test
+    void rejectsDuplicateKeys() {
+        assertEquals(List.of("Duplicate key port"),
+                compile("Twice", "@ConfigType public interface Twice { int port(); @ConfigType.Key(\"port\") int other(); }"));
+    }
+
+    @Test
+    void rejectsUnsupportedTypes() {
+        assertEquals(List.of("Unsupported @ConfigType getter type java.util.Map<java.lang.String,java.lang.String>"),
+                compile("Mapped", "@ConfigType public interface Mapped { java.util.Map<String, String> values(); }"));
+    }
+
+    /**
+     * Compiles one source in package {@code demo} together with the generated classes.
+     *
+     * @return the error messages
+     */
+    private List<String> compile(String name, String body) {
+        String source = "package demo;\nimport com.uroria.fastconfig.ConfigType;\n" + body;
+        JavaFileObject file = new SimpleJavaFileObject(URI.create("string:///demo/" + name + ".java"), JavaFileObject.Kind.SOURCE) {
+            @Override
+            public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                return source;
+            }
+        };
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        List<String> options = List.of("-classpath", System.getProperty("java.class.path"),
+                "-d", this.directory.toString(), "-s", this.directory.toString());
+        JavaCompiler.CompilationTask task = compiler.getTask(null, null, diagnostics, options, null, List.of(file));
+        task.setProcessors(List.of(new ConfigTypeProcessor()));
+        task.call();
+        List<String> errors = new ArrayList<>();
+        for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics()) {
+            if (diagnostic.getKind() == Diagnostic.Kind.ERROR) errors.add(diagnostic.getMessage(null));
+        }
+        return errors;
+    }
+}
@@ -2,4 +2,6 @@ rootProject.name = "FastConfig"
 
 plugins {
     id("org.gradle.toolchains.foojay-resolver-convention") version("0.8.0")
-}
\ No newline at end of file
+}
+
+include("processor")
@@ -0,0 +1,20 @@
+package com.uroria.fastconfig;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Describes one operation on a configuration as seen by a single listener. All changes of the operation
+ * below the listener's key are delivered together, so a batch fires once per listener.
+ */
+@Getter
+@RequiredArgsConstructor
+public final class ChangeEvent {
+    private final Configuration source;
+    /**
+     * Dotted paths from the root of the file. A change above the listener's key is reported as the key itself.
+     */
+    private final List<String> paths;
+}
@@ -0,0 +1,72 @@
+package com.uroria.fastconfig;
+
+import com.uroria.fastconfig.internal.FileData;
+import com.uroria.fastconfig.internal.utils.ClassWrapper;
+import lombok.Getter;
+import lombok.NonNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A typed key meant to be declared once as a constant. The converted value is cached together with the
+ * {@link FileData#getModificationCount() modification count} of the data it was read from, so repeated
+ * reads of an unchanged file skip the tree walk and the type conversion.
+ * Only the file the key was read from last is cached.
+ */
+public final class ConfigKey<T> {
+    private @Getter final KeyPath path;
+    private @Getter final Class<T> type;
+    private @Getter final @Nullable T def;
+    private volatile Cached<T> cached;
+
+    private ConfigKey(KeyPath path, Class<T> type, T def) {
+        this.path = path;
+        this.type = type;
+        this.def = def;
+    }
+
+    public static <T> ConfigKey<T> of(@NonNull String path, @NonNull Class<T> type) {
+        return new ConfigKey<>(KeyPath.of(path), type, null);
+    }
+
+    public static <T> ConfigKey<T> of(@NonNull String path, @NonNull Class<T> type, @Nullable T def) {
+        return new ConfigKey<>(KeyPath.of(path), type, def);
+    }
+
+    public static <T> ConfigKey<T> of(@NonNull KeyPath path, @NonNull Class<T> type, @Nullable T def) {
+        return new ConfigKey<>(path, type, def);
+    }
+
+    /**
+     * Reads this key from the data at the given, already prefixed, path.
+     */
+    public T read(@NonNull FileData data, @NonNull KeyPath resolvedPath) {
+        Cached<T> cached = this.cached;
+        long modificationCount = data.getModificationCount();
+        if (cached != null && cached.data == data && cached.path == resolvedPath && cached.modificationCount == modificationCount) {
+            return cached.value;
+        }
+        Object raw = data.get(resolvedPath);
+        T value = raw == null ? this.def : ClassWrapper.getFromDef(raw, this.type);
+        this.cached = new Cached<>(data, resolvedPath, modificationCount, value);
+        return value;
+    }
+
+    @Override
+    public String toString() {
+        return "ConfigKey(" + this.path + ", " + this.type.getSimpleName() + ")";
+    }
+
+    private static final class Cached<T> {
+        private final FileData data;
+        private final KeyPath path;
+        private final long modificationCount;
+        private final T value;
+
+        private Cached(FileData data, KeyPath path, long modificationCount, T value) {
+            this.data = data;
+            this.path = path;
+            this.modificationCount = modificationCount;
+            this.value = value;
+        }
+    }
+}
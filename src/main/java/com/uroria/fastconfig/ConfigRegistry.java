@@ -0,0 +1,264 @@
+package com.uroria.fastconfig;
+
+import com.uroria.fastconfig.internal.AbstractConfigFile;
+import it.unimi.dsi.fastutil.objects.Object2ObjectLinkedOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+import java.io.File;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Hands out one shared config instance per file and keeps at most a fixed number of them open. The least
+ * recently used file is evicted once the bound is exceeded, after flushing its pending changes. Concurrent
+ * requests for a file that is not open yet wait for a single load, and requests for a file that is still being
+ * flushed after its eviction wait for the flush, so they never read it before the changes reached the disk.
+ * A file that cannot be flushed stays open with its pending changes.
+ * <p>
+ * Callers should not keep instances after they might have been evicted, since the next request for the
+ * same file loads a new instance that does not see changes made through the old one.
+ *
+ * <pre>{@code
+ * ConfigRegistry<Json> players = new ConfigRegistry<>(Json::new, 1000);
+ * Json data = players.get(new File("players", uuid + ".json"));
+ * }</pre>
+ */
+public final class ConfigRegistry<C extends AbstractConfigFile> implements Closeable {
+    private final Function<File, C> loader;
+    private final int maximumSize;
+    // Access ordered, least recently used first, guarded by this
+    private final Object2ObjectLinkedOpenHashMap<Path, C> configs = new Object2ObjectLinkedOpenHashMap<>();
+    // Paths being loaded, or being flushed after they were removed, in which case the future completes with null
+    private final Map<Path, CompletableFuture<C>> loading = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder loadFailures = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public ConfigRegistry(@NonNull Function<File, C> loader, int maximumSize) {
+        if (maximumSize <= 0) throw new IllegalArgumentException("Maximum size must be positive");
+        this.loader = loader;
+        this.maximumSize = maximumSize;
+    }
+
+    /**
+     * Returns the open instance for the file, loading it if necessary.
+     */
+    public C get(@NonNull File file) {
+        return get(file.toPath());
+    }
+
+    public C get(@NonNull Path file) {
+        Path key = key(file);
+        C config = lookup(key);
+        if (config != null) {
+            this.hits.increment();
+            return config;
+        }
+        this.misses.increment();
+        while (true) {
+            CompletableFuture<C> future = new CompletableFuture<>();
+            CompletableFuture<C> existing = this.loading.putIfAbsent(key, future);
+            if (existing != null) {
+                config = join(existing);
+                if (config != null) return config;
+                // The file was flushed after its removal and may be loaded again, unless the flush failed and kept it
+                config = lookup(key);
+                if (config != null) return config;
+                continue;
+            }
+
+            List<Closing<C>> evicted = null;
+            try {
+                // Another thread may have finished loading between the lookup and claiming the load
+                config = lookup(key);
+                if (config == null) {
+                    config = this.loader.apply(key.toFile());
+                    evicted = insert(key, config);
+                }
+                future.complete(config);
+            } catch (RuntimeException | Error exception) {
+                this.loadFailures.increment();
+                future.completeExceptionally(exception);
+                throw exception;
+            } finally {
+                this.loading.remove(key, future);
+            }
+            // A failed flush keeps the evicted file open, which is all this request can do about it
+            if (evicted != null) close(evicted);
+            return config;
+        }
+    }
+
+    /**
+     * Returns the open instance for the file without loading it.
+     */
+    @Nullable
+    public C getIfPresent(@NonNull File file) {
+        return lookup(key(file.toPath()));
+    }
+
+    /**
+     * Flushes and closes the instance of the file, if it is open.
+     *
+     * @throws java.io.UncheckedIOException if the file cannot be flushed, it then stays open
+     */
+    public void invalidate(@NonNull File file) {
+        Path key = key(file.toPath());
+        List<Closing<C>> closing = new ObjectArrayList<>(1);
+        synchronized (this) {
+            C config = this.configs.remove(key);
+            if (config == null) return;
+            closing.add(claim(key, config));
+        }
+        RuntimeException failure = close(closing);
+        if (failure != null) throw failure;
+    }
+
+    /**
+     * Flushes and closes every open instance. Files that cannot be flushed stay open and the first failure is thrown.
+     */
+    public void invalidateAll() {
+        List<Closing<C>> closing;
+        synchronized (this) {
+            closing = new ObjectArrayList<>(this.configs.size());
+            for (Map.Entry<Path, C> entry : this.configs.entrySet()) {
+                closing.add(claim(entry.getKey(), entry.getValue()));
+            }
+            this.configs.clear();
+        }
+        RuntimeException failure = close(closing);
+        if (failure != null) throw failure;
+    }
+
+    /**
+     * Flushes every open file without closing it.
+     */
+    public void flushAll() {
+        List<C> configs;
+        synchronized (this) {
+            configs = new ObjectArrayList<>(this.configs.values());
+        }
+        for (C config : configs) {
+            config.flush();
+        }
+    }
+
+    @Override
+    public void close() {
+        invalidateAll();
+    }
+
+    public synchronized int size() {
+        return this.configs.size();
+    }
+
+    public int getMaximumSize() {
+        return this.maximumSize;
+    }
+
+    public long getHitCount() {
+        return this.hits.sum();
+    }
+
+    public long getMissCount() {
+        return this.misses.sum();
+    }
+
+    public long getLoadFailureCount() {
+        return this.loadFailures.sum();
+    }
+
+    public long getEvictionCount() {
+        return this.evictions.sum();
+    }
+
+    public double getHitRate() {
+        long hits = this.hits.sum();
+        long total = hits + this.misses.sum();
+        return total == 0 ? 1 : (double) hits / total;
+    }
+
+    private synchronized C lookup(Path key) {
+        return this.configs.getAndMoveToLast(key);
+    }
+
+    private synchronized List<Closing<C>> insert(Path key, C config) {
+        this.configs.putAndMoveToLast(key, config);
+        if (this.configs.size() <= this.maximumSize) return null;
+        List<Closing<C>> evicted = new ObjectArrayList<>();
+        while (this.configs.size() > this.maximumSize) {
+            Path oldest = this.configs.firstKey();
+            evicted.add(claim(oldest, this.configs.removeFirst()));
+            this.evictions.increment();
+        }
+        return evicted;
+    }
+
+    /**
+     * Keeps the path of a config that was just removed claimed until it is flushed. Must be called while
+     * holding the lock that removed it, so no request can start loading the file in between.
+     */
+    private Closing<C> claim(Path key, C config) {
+        CompletableFuture<C> claim = new CompletableFuture<>();
+        this.loading.put(key, claim);
+        return new Closing<>(key, config, claim);
+    }
+
+    /**
+     * Flushes the removed configs outside the lock and releases their paths. A config that cannot be flushed
+     * is put back, so its changes are neither lost nor shadowed by a fresh load of the stale file.
+     *
+     * @return the first failure, with later ones suppressed, or null
+     */
+    private RuntimeException close(List<Closing<C>> closing) {
+        RuntimeException failure = null;
+        for (Closing<C> entry : closing) {
+            try {
+                entry.config.flush();
+            } catch (RuntimeException exception) {
+                synchronized (this) {
+                    this.configs.putAndMoveToLast(entry.key, entry.config);
+                }
+                if (failure == null) failure = exception;
+                else failure.addSuppressed(exception);
+            } finally {
+                this.loading.remove(entry.key, entry.claim);
+                entry.claim.complete(null);
+            }
+        }
+        return failure;
+    }
+
+    private static Path key(Path file) {
+        return file.toAbsolutePath().normalize();
+    }
+
+    private static <C> C join(CompletableFuture<C> future) {
+        try {
+            return future.join();
+        } catch (CompletionException exception) {
+            Throwable cause = exception.getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            throw exception;
+        }
+    }
+
+    @RequiredArgsConstructor
+    private static final class Closing<C> {
+        private final Path key;
+        private final C config;
+        private final CompletableFuture<C> claim;
+    }
+}
@@ -0,0 +1,38 @@
+package com.uroria.fastconfig;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks an interface whose abstract getters describe a config section. With the {@code processor} module on the
+ * annotation processor path, every such interface {@code Name} gets three generated classes in its package:
+ * <ul>
+ *     <li>{@code NameValue}, an immutable implementation,</li>
+ *     <li>{@code NameSerializable}, a {@link com.uroria.fastconfig.internal.utils.serialize.ConfSerializable}
+ *     with one static converter per getter,</li>
+ *     <li>{@code NameAccessor}, typed getters and setters on a {@link Configuration} with precompiled
+ *     {@link KeyPath}s.</li>
+ * </ul>
+ * Getters may return primitives and their wrappers, {@link String}, enums, other {@code ConfigType} interfaces
+ * and {@link java.util.List}s of those.
+ * <p>
+ * The accessor works on its own. {@link Configuration#getSerializable} and {@link Configuration#setSerializable}
+ * only know the type once {@code NameSerializable.INSTANCE} was passed to
+ * {@link com.uroria.fastconfig.internal.utils.serialize.SerializeUtils#registerSerializable}.
+ */
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.TYPE)
+public @interface ConfigType {
+
+    /**
+     * Overrides the key of a getter, which defaults to the getter name. Keys must not contain dots, nested
+     * sections are described by getters returning another {@code ConfigType}.
+     */
+    @Retention(RetentionPolicy.CLASS)
+    @Target(ElementType.METHOD)
+    @interface Key {
+        String value();
+    }
+}
@@ -0,0 +1,158 @@
+package com.uroria.fastconfig;
+
+import com.uroria.fastconfig.internal.AbstractConfigFile;
+import com.uroria.fastconfig.internal.utils.Schedulers;
+import lombok.NonNull;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reloads config files when they are edited on disk. One watcher thread serves any number of files,
+ * bursts of events for the same file are debounced, and a file is only reloaded if its size, modification
+ * time or checksum differ from what the config last wrote or read, so its own writes are skipped.
+ */
+public final class ConfigWatcher implements Closeable {
+    private static final Duration DEFAULT_DEBOUNCE = Duration.ofMillis(100);
+
+    private final WatchService watchService;
+    private final Executor executor;
+    private final long debounce;
+    private final Map<Path, Set<AbstractConfigFile>> configs = new ConcurrentHashMap<>();
+    private final Map<Path, WatchKey> directories = new ConcurrentHashMap<>();
+    private final Map<Path, Long> lastEvents = new ConcurrentHashMap<>();
+    private final Thread thread;
+    private volatile boolean closed;
+
+    public ConfigWatcher() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public ConfigWatcher(@NonNull Executor executor) {
+        this(executor, DEFAULT_DEBOUNCE);
+    }
+
+    public ConfigWatcher(@NonNull Executor executor, @NonNull Duration debounce) {
+        try {
+            this.watchService = FileSystems.getDefault().newWatchService();
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+        this.executor = executor;
+        this.debounce = debounce.toNanos();
+        this.thread = new Thread(this::run, "FastConfig-Watcher");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    public synchronized void watch(@NonNull AbstractConfigFile config) {
+        if (this.closed) throw new IllegalStateException("ConfigWatcher is closed");
+        Path file = path(config);
+        Path directory = file.getParent();
+        if (!this.directories.containsKey(directory)) {
+            try {
+                this.directories.put(directory, directory.register(this.watchService,
+                        StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY));
+            } catch (IOException exception) {
+                throw new UncheckedIOException(exception);
+            }
+        }
+        this.configs.computeIfAbsent(file, key -> ConcurrentHashMap.newKeySet()).add(config);
+    }
+
+    public synchronized void unwatch(@NonNull AbstractConfigFile config) {
+        Path file = path(config);
+        Set<AbstractConfigFile> watched = this.configs.get(file);
+        if (watched == null || !watched.remove(config) || !watched.isEmpty()) return;
+        this.configs.remove(file);
+        Path directory = file.getParent();
+        for (Path path : this.configs.keySet()) {
+            if (path.getParent().equals(directory)) return;
+        }
+        WatchKey key = this.directories.remove(directory);
+        if (key != null) key.cancel();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        this.closed = true;
+        this.configs.clear();
+        this.directories.clear();
+        this.watchService.close();
+    }
+
+    private void run() {
+        while (!this.closed) {
+            WatchKey key;
+            try {
+                key = this.watchService.take();
+            } catch (InterruptedException | ClosedWatchServiceException exception) {
+                return;
+            }
+            Path directory = (Path) key.watchable();
+            for (WatchEvent<?> event : key.pollEvents()) {
+                if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                    for (Path file : this.configs.keySet()) {
+                        if (file.getParent().equals(directory)) changed(file);
+                    }
+                } else {
+                    Path file = directory.resolve((Path) event.context());
+                    if (this.configs.containsKey(file)) changed(file);
+                }
+            }
+            key.reset();
+        }
+    }
+
+    // Only the first event of a burst schedules a check, later ones just push the deadline back
+    private void changed(Path file) {
+        if (this.lastEvents.put(file, System.nanoTime()) == null) {
+            schedule(file, this.debounce);
+        }
+    }
+
+    private void schedule(Path file, long delay) {
+        Schedulers.scheduler().schedule(() -> settle(file), delay, TimeUnit.NANOSECONDS);
+    }
+
+    private void settle(Path file) {
+        Long lastEvent = this.lastEvents.get(file);
+        if (lastEvent == null) return;
+        long remaining = lastEvent + this.debounce - System.nanoTime();
+        if (remaining > 0) {
+            schedule(file, remaining);
+        } else if (this.lastEvents.remove(file, lastEvent)) {
+            this.executor.execute(() -> reload(file));
+        } else {
+            schedule(file, this.debounce);
+        }
+    }
+
+    private void reload(Path file) {
+        Set<AbstractConfigFile> watched = this.configs.get(file);
+        if (watched == null) return;
+        for (AbstractConfigFile config : watched) {
+            config.reloadIfChanged();
+        }
+    }
+
+    private static Path path(AbstractConfigFile config) {
+        return Paths.get(config.getFilePath()).normalize();
+    }
+}
@@ -6,10 +6,21 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import com.uroria.fastconfig.internal.utils.ClassWrapper;
+import com.uroria.fastconfig.internal.utils.serialize.ObjectBinder;
 import com.uroria.fastconfig.internal.utils.serialize.SerializeUtils;
+import it.unimi.dsi.fastutil.doubles.DoubleArrayList;
+import it.unimi.dsi.fastutil.doubles.DoubleList;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntList;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongList;
 import lombok.NonNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -31,7 +42,77 @@ public interface Configuration {
 
     void remove(final String key);
 
+    /**
+     * The KeyPath overloads fall back to the String methods, so existing implementations keep working.
+     * The built-in files and sections override them to skip parsing the key again.
+     */
+    @Nullable
+    default Object get(final KeyPath key) {
+        return get(key == null ? null : key.toString());
+    }
+
+    default boolean contains(final KeyPath key) {
+        return contains(key == null ? null : key.toString());
+    }
+
+    default void set(@NonNull final KeyPath key, final Object value) {
+        set(key.toString(), value);
+    }
+
+    default Set<String> singleLayerKeySet(final KeyPath key) {
+        return singleLayerKeySet(key == null ? null : key.toString());
+    }
+
+    default Set<String> keySet(final KeyPath key) {
+        return keySet(key == null ? null : key.toString());
+    }
+
+    default void remove(final KeyPath key) {
+        remove(key == null ? null : key.toString());
+    }
+
+    /**
+     * Visits every leaf with its dotted path. The path is a shared buffer that is only valid during the callback.
+     */
+    void forEachLeaf(final BiConsumer<CharSequence, Object> visitor);
+
+    void forEachNode(final BiConsumer<CharSequence, Map<String, Object>> visitor);
+
+    Stream<Map.Entry<String, Object>> leafStream();
+
+    /**
+     * Applies all mutations recorded by the action with a single write. If the action throws,
+     * none of them are applied.
+     */
+    void batch(final Consumer<Transaction> action);
+
+    /**
+     * Notifies the listener on the executor whenever a value at or below the key changes. A null key
+     * listens to everything. Events are coalesced per operation.
+     */
+    Subscription onChange(final KeyPath key, final Executor executor, final Consumer<ChangeEvent> listener);
+
+    default Subscription onChange(final String key, final Consumer<ChangeEvent> listener) {
+        return onChange(keyPath(key), Runnable::run, listener);
+    }
+
+    default Subscription onChange(final String key, final Executor executor, final Consumer<ChangeEvent> listener) {
+        return onChange(keyPath(key), executor, listener);
+    }
+
+    default Subscription onChange(final KeyPath key, final Consumer<ChangeEvent> listener) {
+        return onChange(key, Runnable::run, listener);
+    }
+
+    default <T> T get(@NonNull final ConfigKey<T> key) {
+        return find(key.getPath(), key.getType()).orElse(key.getDef());
+    }
+
     default <T> Optional<T> find(final String key, final Class<T> type) {
+        return find(keyPath(key), type);
+    }
+
+    default <T> Optional<T> find(final KeyPath key, final Class<T> type) {
         final Object raw = get(key);
         if (raw == null) {
             return Optional.empty();
@@ -40,6 +121,10 @@ public interface Configuration {
     }
 
     default <T> void setSerializable(@NonNull final String key, @NonNull final T value) {
+        setSerializable(KeyPath.of(key), value);
+    }
+
+    default <T> void setSerializable(@NonNull final KeyPath key, @NonNull final T value) {
         try {
             final Object data = SerializeUtils.serialize(value);
             set(key, data);
@@ -49,71 +134,242 @@ public interface Configuration {
     }
 
     default <T> T get(final String key, final T def) {
+        return get(keyPath(key), def);
+    }
+
+    default <T> T get(final KeyPath key, final T def) {
         final Object raw = get(key);
         return raw == null ? def : ClassWrapper.getFromDef(raw, def);
     }
 
     default String getString(final String key) {
+        return getString(keyPath(key));
+    }
+
+    default String getString(final KeyPath key) {
         return getOrDefault(key, "");
     }
 
     default long getLong(final String key) {
-        return getOrDefault(key, 0L);
+        return getLong(keyPath(key), 0L);
+    }
+
+    default long getLong(final KeyPath key) {
+        return getLong(key, 0L);
+    }
+
+    default long getLong(final String key, final long def) {
+        return getLong(keyPath(key), def);
+    }
+
+    default long getLong(final KeyPath key, final long def) {
+        final Object raw = get(key);
+        return raw == null ? def : ClassWrapper.LONG.asLong(raw);
     }
 
     default int getInt(final String key) {
-        return getOrDefault(key, 0);
+        return getInt(keyPath(key), 0);
+    }
+
+    default int getInt(final KeyPath key) {
+        return getInt(key, 0);
+    }
+
+    default int getInt(final String key, final int def) {
+        return getInt(keyPath(key), def);
+    }
+
+    default int getInt(final KeyPath key, final int def) {
+        final Object raw = get(key);
+        return raw == null ? def : ClassWrapper.INTEGER.asInt(raw);
     }
 
     default byte getByte(final String key) {
-        return getOrDefault(key, (byte) 0);
+        return getByte(keyPath(key), (byte) 0);
+    }
+
+    default byte getByte(final KeyPath key) {
+        return getByte(key, (byte) 0);
+    }
+
+    default byte getByte(final String key, final byte def) {
+        return getByte(keyPath(key), def);
+    }
+
+    default byte getByte(final KeyPath key, final byte def) {
+        final Object raw = get(key);
+        return raw == null ? def : ClassWrapper.BYTE.asByte(raw);
     }
 
     default boolean getBoolean(final String key) {
-        return getOrDefault(key, false);
+        return getBoolean(keyPath(key), false);
+    }
+
+    default boolean getBoolean(final KeyPath key) {
+        return getBoolean(key, false);
+    }
+
+    default boolean getBoolean(final String key, final boolean def) {
+        return getBoolean(keyPath(key), def);
+    }
+
+    default boolean getBoolean(final KeyPath key, final boolean def) {
+        final Object raw = get(key);
+        return raw == null ? def : ClassWrapper.BOOLEAN.asBoolean(raw);
     }
 
     default float getFloat(final String key) {
-        return getOrDefault(key, 0F);
+        return getFloat(keyPath(key), 0F);
+    }
+
+    default float getFloat(final KeyPath key) {
+        return getFloat(key, 0F);
+    }
+
+    default float getFloat(final String key, final float def) {
+        return getFloat(keyPath(key), def);
+    }
+
+    default float getFloat(final KeyPath key, final float def) {
+        final Object raw = get(key);
+        return raw == null ? def : ClassWrapper.FLOAT.asFloat(raw);
     }
 
     default double getDouble(final String key) {
-        return getOrDefault(key, 0D);
+        return getDouble(keyPath(key), 0D);
+    }
+
+    default double getDouble(final KeyPath key) {
+        return getDouble(key, 0D);
+    }
+
+    default double getDouble(final String key, final double def) {
+        return getDouble(keyPath(key), def);
+    }
+
+    default double getDouble(final KeyPath key, final double def) {
+        final Object raw = get(key);
+        return raw == null ? def : ClassWrapper.DOUBLE.asDouble(raw);
     }
 
     default List<?> getList(final String key) {
+        return getList(keyPath(key));
+    }
+
+    default List<?> getList(final KeyPath key) {
         return getOrDefault(key, new ArrayList<>());
     }
 
     default <T> List<T> getListParameterized(final String key) {
+        return getListParameterized(keyPath(key));
+    }
+
+    default <T> List<T> getListParameterized(final KeyPath key) {
         return getOrSetDefault(key, new ArrayList<>());
     }
 
     default List<String> getStringList(final String key) {
+        return getStringList(keyPath(key));
+    }
+
+    default List<String> getStringList(final KeyPath key) {
         return getOrDefault(key, new ArrayList<>());
     }
 
     default List<Integer> getIntegerList(final String key) {
+        return getIntegerList(keyPath(key));
+    }
+
+    default List<Integer> getIntegerList(final KeyPath key) {
         return getOrDefault(key, new ArrayList<>());
     }
 
     default List<Byte> getByteList(final String key) {
-        return getOrDefault(key, new ArrayList<>());
+        return getByteList(keyPath(key));
     }
 
-    default List<Long> getLongList(final String key) {
+    default List<Byte> getByteList(final KeyPath key) {
         return getOrDefault(key, new ArrayList<>());
     }
 
+    /**
+     * Numeric arrays are stored as primitive lists, so this returns the stored list without copying or boxing.
+     */
+    default IntList getIntList(final String key) {
+        return getIntList(keyPath(key));
+    }
+
+    default IntList getIntList(final KeyPath key) {
+        final Object raw = get(key);
+        return raw == null ? new IntArrayList() : ClassWrapper.INTEGER.getIntList(raw);
+    }
+
+    default LongList getLongList(final String key) {
+        return getLongList(keyPath(key));
+    }
+
+    default LongList getLongList(final KeyPath key) {
+        final Object raw = get(key);
+        return raw == null ? new LongArrayList() : ClassWrapper.LONG.getLongList(raw);
+    }
+
+    default DoubleList getDoubleList(final String key) {
+        return getDoubleList(keyPath(key));
+    }
+
+    default DoubleList getDoubleList(final KeyPath key) {
+        final Object raw = get(key);
+        return raw == null ? new DoubleArrayList() : ClassWrapper.DOUBLE.getDoubleList(raw);
+    }
+
+    default int[] getIntArray(final String key) {
+        return getIntArray(keyPath(key));
+    }
+
+    default int[] getIntArray(final KeyPath key) {
+        final Object raw = get(key);
+        return raw == null ? new int[0] : ClassWrapper.INTEGER.toIntArray(raw);
+    }
+
+    default long[] getLongArray(final String key) {
+        return getLongArray(keyPath(key));
+    }
+
+    default long[] getLongArray(final KeyPath key) {
+        final Object raw = get(key);
+        return raw == null ? new long[0] : ClassWrapper.LONG.toLongArray(raw);
+    }
+
+    default double[] getDoubleArray(final String key) {
+        return getDoubleArray(keyPath(key));
+    }
+
+    default double[] getDoubleArray(final KeyPath key) {
+        final Object raw = get(key);
+        return raw == null ? new double[0] : ClassWrapper.DOUBLE.toDoubleArray(raw);
+    }
+
     default Map<?, ?> getMap(final String key) {
+        return getMap(keyPath(key));
+    }
+
+    default Map<?, ?> getMap(final KeyPath key) {
         return getOrDefault(key, new HashMap<>());
     }
 
     default <K, V> Map<K, V> getMapParameterized(final String key) {
+        return getMapParameterized(keyPath(key));
+    }
+
+    default <K, V> Map<K, V> getMapParameterized(final KeyPath key) {
         return getOrSetDefault(key, new HashMap<>());
     }
 
     default <E extends Enum<E>> E getEnum(@NonNull String key, @NonNull Class<E> enumType) {
+        return getEnum(KeyPath.of(key), enumType);
+    }
+
+    default <E extends Enum<E>> E getEnum(@NonNull KeyPath key, @NonNull Class<E> enumType) {
         final Object object = get(key);
         if (object == null) return null;
         return Enum.valueOf(enumType, (String) object);
@@ -121,6 +377,11 @@ public interface Configuration {
 
     @Nullable
     default <T> T getSerializable(final String key, final Class<T> clazz) {
+        return getSerializable(keyPath(key), clazz);
+    }
+
+    @Nullable
+    default <T> T getSerializable(final KeyPath key, final Class<T> clazz) {
         if (!contains(key)) {
             return null;
         }
@@ -131,8 +392,38 @@ public interface Configuration {
         return SerializeUtils.deserialize(raw, clazz);
     }
 
+    /**
+     * Maps the section at the key to a record or plain object, see {@link ObjectBinder}. Returns null if the
+     * key is not set.
+     */
+    @Nullable
+    default <T> T bind(@NonNull final String key, @NonNull final Class<T> type) {
+        return bind(keyPath(key), type);
+    }
+
+    @Nullable
+    default <T> T bind(@NonNull final KeyPath key, @NonNull final Class<T> type) {
+        return ObjectBinder.read(get(key), type);
+    }
+
+    /**
+     * Replaces the value at the key with the section the object maps to, the reverse of {@link #bind(KeyPath, Class)}.
+     */
+    default void store(@NonNull final String key, @Nullable final Object value) {
+        store(keyPath(key), value);
+    }
+
+    default void store(@NonNull final KeyPath key, @Nullable final Object value) {
+        set(key, ObjectBinder.write(value));
+    }
+
     @Nullable
     default <T> List<T> getSerializableList(final String key, final Class<T> type) {
+        return getSerializableList(keyPath(key), type);
+    }
+
+    @Nullable
+    default <T> List<T> getSerializableList(final KeyPath key, final Class<T> type) {
         if (!contains(key)) {
             return null;
         }
@@ -146,17 +437,29 @@ public interface Configuration {
     }
 
     default <T> T getOrDefault(final String key, @NonNull final T def) {
+        return getOrDefault(keyPath(key), def);
+    }
+
+    default <T> T getOrDefault(final KeyPath key, @NonNull final T def) {
         final Object raw = get(key);
         return raw == null ? def : ClassWrapper.getFromDef(raw, def);
     }
 
     default void setDefault(final String key, final Object value) {
+        setDefault(KeyPath.of(key), value);
+    }
+
+    default void setDefault(final KeyPath key, final Object value) {
         if (!contains(key)) {
             set(key, value);
         }
     }
 
     default <T> T getOrSetDefault(final String key, final T def) {
+        return getOrSetDefault(KeyPath.of(key), def);
+    }
+
+    default <T> T getOrSetDefault(final KeyPath key, final T def) {
         final Object raw = get(key);
         if (raw == null) {
             set(key, def);
@@ -165,4 +468,8 @@ public interface Configuration {
             return ClassWrapper.getFromDef(raw, def);
         }
     }
+
+    private static KeyPath keyPath(final String key) {
+        return key == null ? null : KeyPath.of(key);
+    }
 }
@@ -1,30 +1,51 @@
 package com.uroria.fastconfig;
 
 import com.uroria.fastconfig.internal.AbstractConfigFile;
+import com.uroria.fastconfig.internal.BulkLoader;
 import com.uroria.fastconfig.internal.FileData;
+import com.uroria.fastconfig.internal.utils.BinarySnapshot;
+import com.uroria.fastconfig.internal.utils.FileFingerprint;
 import com.uroria.fastconfig.internal.utils.FileUtils;
-import lombok.Cleanup;
+import com.uroria.fastconfig.internal.utils.JsonParser;
+import com.uroria.fastconfig.internal.utils.JsonWriter;
+import com.uroria.fastconfig.internal.utils.Schedulers;
+import it.unimi.dsi.fastutil.objects.Object2ObjectLinkedOpenHashMap;
 import lombok.Getter;
 import lombok.NonNull;
+import lombok.Setter;
 import org.jetbrains.annotations.Nullable;
-import org.json.JSONObject;
-import org.json.JSONTokener;
 
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.Writer;
-import java.nio.file.Files;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
 import java.util.Collections;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 
 @Getter
 public final class Json extends AbstractConfigFile {
+    private static volatile boolean defaultSnapshots;
+    private static volatile int defaultLazyDepth;
+
+    private @Setter boolean pretty = true;
+    /**
+     * Keeps a binary snapshot next to the file and loads it instead of parsing while the file is unchanged.
+     */
+    private @Setter boolean snapshots = defaultSnapshots;
+    private int lazyDepth = defaultLazyDepth;
 
     public Json(@NonNull Json json) {
         super(json.file);
         this.fileData = json.fileData;
         this.pathPrefix = json.pathPrefix;
+        this.pretty = json.pretty;
+        this.snapshots = json.snapshots;
+        this.lazyDepth = json.lazyDepth;
     }
 
     public Json(@NonNull String name, @NonNull String path) {
@@ -40,25 +61,121 @@ public final class Json extends AbstractConfigFile {
     }
 
     public Json(@NonNull File file) {
+        this(file, true);
+    }
+
+    private Json(File file, boolean load) {
         super(file, FileType.JSON);
-        create();
-        reload();
+        if (load) {
+            create();
+            reload();
+        }
+    }
+
+    /**
+     * Creates and loads the file without blocking the caller. Unlike the constructors, the future fails if
+     * the file cannot be read.
+     */
+    public static CompletableFuture<Json> openAsync(@NonNull File file) {
+        return openAsync(file, Schedulers.io());
+    }
+
+    public static CompletableFuture<Json> openAsync(@NonNull File file, @NonNull Executor executor) {
+        return CompletableFuture.supplyAsync(() -> {
+            Json config = new Json(file, false);
+            config.create();
+            try {
+                config.reloadOrThrow();
+            } catch (IOException exception) {
+                throw new UncheckedIOException(exception);
+            }
+            return config;
+        }, executor);
+    }
+
+    /**
+     * Loads every JSON file directly inside the directory on the common fork join pool.
+     */
+    public static LoadResult<Json> loadAll(@NonNull Path directory) {
+        return loadAll(directory, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Loads every JSON file directly inside the directory in parallel on the executor. Files that cannot
+     * be read or parsed are reported in {@link LoadResult#getErrors()} instead of failing the others.
+     */
+    public static LoadResult<Json> loadAll(@NonNull Path directory, @NonNull Executor executor) {
+        return BulkLoader.loadAll(directory, FileType.JSON, executor, file -> {
+            Json config = new Json(file, false);
+            config.reloadOrThrow();
+            return config;
+        });
+    }
+
+    /**
+     * Enables snapshots for every Json created afterwards. Has to be set before the files are opened,
+     * since the constructors already load them.
+     */
+    public static void setDefaultSnapshots(boolean snapshots) {
+        defaultSnapshots = snapshots;
+    }
+
+    /**
+     * Sets the lazy depth for every Json created afterwards, see {@link #setLazyDepth(int)}.
+     */
+    public static void setDefaultLazyDepth(int lazyDepth) {
+        defaultLazyDepth = checkLazyDepth(lazyDepth);
+    }
+
+    /**
+     * Parses only the first {@code lazyDepth} levels of sections on the next reload. Deeper sections are
+     * parsed the first time they are accessed and written back byte for byte while untouched, so load time
+     * and memory follow what is actually used. 0 parses everything.
+     * <p>
+     * Unparsed sections point into the file content, so it is read onto the heap instead of being memory
+     * mapped. Snapshots are not used.
+     */
+    public void setLazyDepth(int lazyDepth) {
+        this.lazyDepth = checkLazyDepth(lazyDepth);
+    }
+
+    private static int checkLazyDepth(int lazyDepth) {
+        if (lazyDepth < 0) throw new IllegalArgumentException("Lazy depth can't be negative");
+        return lazyDepth;
     }
 
     @Override
-    protected Map<String, Object> readToMap() throws IOException {
-        if (this.file.length() == 0) {
-            Files.write(this.file.toPath(), Collections.singletonList("{}"));
+    protected Map<String, Object> readToMap(@NonNull ByteBuffer content, FileFingerprint source) throws IOException {
+        if (!content.hasRemaining()) {
+            FileUtils.replaceContent(this.file, Collections.singletonList("{}"));
+            return new Object2ObjectLinkedOpenHashMap<>();
         }
 
-        JSONTokener jsonTokener = new JSONTokener(FileUtils.createInputStream(this.file));
-        return new JSONObject(jsonTokener).toMap();
+        if (this.lazyDepth > 0) {
+            return JsonParser.parse(content, this.lazyDepth);
+        }
+        if (!this.snapshots) return JsonParser.parse(content);
+
+        if (source == null) return JsonParser.parse(content);
+        File snapshot = BinarySnapshot.fileFor(this.file);
+        Map<String, Object> map = BinarySnapshot.read(snapshot, source);
+        if (map != null) return map;
+
+        map = JsonParser.parse(content);
+        // Encoded now, while nobody else can see the tree yet, but written to disk in the background
+        byte[] encoded = BinarySnapshot.encode(source, map);
+        if (encoded != null) Schedulers.scheduler().execute(() -> BinarySnapshot.write(snapshot, encoded));
+        return map;
+    }
+
+    @Override
+    protected long write(@NonNull FileData data) throws IOException {
+        // Replaced rather than truncated, the last read may still be mapped
+        return JsonWriter.write(this.file, data.toMap(), this.pretty, true);
     }
 
     @Override
-    protected void write(@NonNull FileData data) throws IOException {
-        @Cleanup Writer writer = FileUtils.createWriter(this.file);
-        writer.write(data.toJsonObject().toString(3));
-        writer.flush();
+    protected boolean isMappable() {
+        return this.lazyDepth == 0;
     }
 }
@@ -0,0 +1,138 @@
+package com.uroria.fastconfig;
+
+import lombok.NonNull;
+
+/**
+ * A dotted configuration key that is split once. Instances are immutable and cached, so resolving the same
+ * key string again returns the same instance without allocating.
+ */
+public final class KeyPath {
+    private static final int CACHE_SIZE = 4096;
+    private static final int CHILD_CACHE_SIZE = 16;
+    private static final KeyPath[] CACHE = new KeyPath[CACHE_SIZE];
+
+    private final String path;
+    private final String[] parts;
+    private Child[] children;
+
+    private KeyPath(String path, String[] parts) {
+        this.path = path;
+        this.parts = parts;
+    }
+
+    public static KeyPath of(@NonNull String path) {
+        int slot = spread(path.hashCode()) & (CACHE_SIZE - 1);
+        KeyPath cached = CACHE[slot];
+        if (cached != null && cached.path.equals(path)) return cached;
+        String[] parts = split(path);
+        KeyPath keyPath = new KeyPath(canonical(path), parts);
+        CACHE[slot] = keyPath;
+        return keyPath;
+    }
+
+    public static KeyPath of(@NonNull String... parts) {
+        return of(String.join(".", parts));
+    }
+
+    /**
+     * Appends a relative key to this path. The result is cached per parent, which keeps lookups through
+     * sections allocation free.
+     */
+    public KeyPath resolve(@NonNull String key) {
+        Child[] children = this.children;
+        if (children == null) {
+            children = new Child[CHILD_CACHE_SIZE];
+            this.children = children;
+        }
+        int slot = spread(key.hashCode()) & (CHILD_CACHE_SIZE - 1);
+        Child child = children[slot];
+        if (child != null && child.key.equals(key)) return child.path;
+        KeyPath keyPath = of(this.path + "." + key);
+        children[slot] = new Child(key, keyPath);
+        return keyPath;
+    }
+
+    public KeyPath resolve(@NonNull KeyPath key) {
+        return resolve(key.path);
+    }
+
+    public int size() {
+        return this.parts.length;
+    }
+
+    public String part(int index) {
+        return this.parts[index];
+    }
+
+    public String last() {
+        return this.parts[this.parts.length - 1];
+    }
+
+    @Override
+    public String toString() {
+        return this.path;
+    }
+
+    @Override
+    public int hashCode() {
+        return this.path.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == this) return true;
+        if (!(obj instanceof KeyPath)) return false;
+        return this.path.equals(((KeyPath) obj).path);
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    // Trailing dots are dropped by the split, so they are dropped from the string form as well
+    private static String canonical(String path) {
+        int end = path.length();
+        while (end > 0 && path.charAt(end - 1) == '.') {
+            end--;
+        }
+        return end == path.length() || end == 0 ? path : path.substring(0, end);
+    }
+
+    // Same result as path.split("\\.") without the regex and with a pre-sized array
+    private static String[] split(String path) {
+        int end = path.length();
+        while (end > 0 && path.charAt(end - 1) == '.') {
+            end--;
+        }
+        if (end == 0) {
+            if (path.isEmpty()) return new String[]{path};
+            throw new IllegalArgumentException("Invalid key path '" + path + "'");
+        }
+        int count = 1;
+        for (int i = 0; i < end; i++) {
+            if (path.charAt(i) == '.') count++;
+        }
+        if (count == 1) return new String[]{end == path.length() ? path : path.substring(0, end)};
+        String[] parts = new String[count];
+        int start = 0;
+        int index = 0;
+        for (int i = 0; i < end; i++) {
+            if (path.charAt(i) == '.') {
+                parts[index++] = path.substring(start, i);
+                start = i + 1;
+            }
+        }
+        parts[index] = path.substring(start, end);
+        return parts;
+    }
+
+    private static final class Child {
+        private final String key;
+        private final KeyPath path;
+
+        private Child(String key, KeyPath path) {
+            this.key = key;
+            this.path = path;
+        }
+    }
+}
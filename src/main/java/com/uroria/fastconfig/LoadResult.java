@@ -0,0 +1,26 @@
+package com.uroria.fastconfig;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.nio.file.Path;
+import java.util.Map;
+
+/**
+ * Outcome of loading a whole directory. Every file ends up in exactly one of the two maps, both ordered by path.
+ */
+@Getter
+@RequiredArgsConstructor
+public final class LoadResult<C> {
+    private final Map<Path, C> configs;
+    /**
+     * Why a file could not be loaded, usually an {@link java.io.IOException} or a parse error, but errors such
+     * as a {@link StackOverflowError} from a deeply nested file end up here as well, and so does the
+     * {@link java.util.concurrent.RejectedExecutionException} of a file the executor refused to run.
+     */
+    private final Map<Path, Throwable> errors;
+
+    public boolean isSuccessful() {
+        return this.errors.isEmpty();
+    }
+}
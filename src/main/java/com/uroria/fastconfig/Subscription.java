@@ -0,0 +1,9 @@
+package com.uroria.fastconfig;
+
+/**
+ * Handle of a registered listener. Closing it removes the listener, closing it twice has no effect.
+ */
+public interface Subscription extends AutoCloseable {
+    @Override
+    void close();
+}
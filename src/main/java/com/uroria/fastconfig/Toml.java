@@ -0,0 +1,106 @@
+package com.uroria.fastconfig;
+
+import com.uroria.fastconfig.internal.AbstractConfigFile;
+import com.uroria.fastconfig.internal.BulkLoader;
+import com.uroria.fastconfig.internal.FileData;
+import com.uroria.fastconfig.internal.utils.FileFingerprint;
+import com.uroria.fastconfig.internal.utils.FileUtils;
+import com.uroria.fastconfig.internal.utils.Schedulers;
+import com.uroria.fastconfig.internal.utils.TomlParser;
+import com.uroria.fastconfig.internal.utils.TomlWriter;
+import lombok.NonNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+public final class Toml extends AbstractConfigFile {
+
+    public Toml(@NonNull Toml toml) {
+        super(toml.file);
+        this.fileData = toml.fileData;
+        this.pathPrefix = toml.pathPrefix;
+    }
+
+    public Toml(@NonNull String name, @NonNull String path) {
+        this(name, path, null);
+    }
+
+    public Toml(@NonNull String name, @NonNull String path, @Nullable InputStream inputStream) {
+        super(name, path, FileType.TOML);
+        if ((create() || this.file.length() == 0) && inputStream != null) {
+            FileUtils.writeToFile(this.file, inputStream);
+        }
+        reload();
+    }
+
+    public Toml(@NonNull File file) {
+        this(file, true);
+    }
+
+    private Toml(File file, boolean load) {
+        super(file, FileType.TOML);
+        if (load) {
+            create();
+            reload();
+        }
+    }
+
+    /**
+     * Creates and loads the file without blocking the caller. Unlike the constructors, the future fails if
+     * the file cannot be read.
+     */
+    public static CompletableFuture<Toml> openAsync(@NonNull File file) {
+        return openAsync(file, Schedulers.io());
+    }
+
+    public static CompletableFuture<Toml> openAsync(@NonNull File file, @NonNull Executor executor) {
+        return CompletableFuture.supplyAsync(() -> {
+            Toml config = new Toml(file, false);
+            config.create();
+            try {
+                config.reloadOrThrow();
+            } catch (IOException exception) {
+                throw new UncheckedIOException(exception);
+            }
+            return config;
+        }, executor);
+    }
+
+    /**
+     * Loads every TOML file directly inside the directory on the common fork join pool.
+     */
+    public static LoadResult<Toml> loadAll(@NonNull Path directory) {
+        return loadAll(directory, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Loads every TOML file directly inside the directory in parallel on the executor. Files that cannot
+     * be read or parsed are reported in {@link LoadResult#getErrors()} instead of failing the others.
+     */
+    public static LoadResult<Toml> loadAll(@NonNull Path directory, @NonNull Executor executor) {
+        return BulkLoader.loadAll(directory, FileType.TOML, executor, file -> {
+            Toml config = new Toml(file, false);
+            config.reloadOrThrow();
+            return config;
+        });
+    }
+
+    @Override
+    protected Map<String, Object> readToMap(@NonNull ByteBuffer content, FileFingerprint source) throws IOException {
+        return TomlParser.parse(content);
+    }
+
+    @Override
+    protected long write(@NonNull FileData data) throws IOException {
+        return TomlWriter.write(this.file, data.toMap());
+    }
+}
@@ -0,0 +1,37 @@
+package com.uroria.fastconfig;
+
+import lombok.NonNull;
+
+import java.util.Map;
+
+/**
+ * Collects mutations for {@link Configuration#batch}. Nothing is applied until the batch action returns, so an
+ * action that throws leaves the configuration untouched.
+ */
+public interface Transaction {
+
+    Transaction set(@NonNull final String key, final Object value);
+
+    Transaction set(@NonNull final KeyPath key, final Object value);
+
+    Transaction remove(@NonNull final String key);
+
+    Transaction remove(@NonNull final KeyPath key);
+
+    /**
+     * Puts the entries at the top level of the transaction's section. The keys are taken literally and not split
+     * at dots.
+     */
+    Transaction putAll(@NonNull final Map<String, Object> map);
+
+    Transaction clear();
+
+    /**
+     * Returns a transaction whose keys are relative to the section, collecting into the same batch.
+     */
+    Transaction section(@NonNull final String pathPrefix);
+
+    Transaction section(@NonNull final KeyPath pathPrefix);
+
+    boolean isEmpty();
+}
@@ -1,12 +1,21 @@
 package com.uroria.fastconfig.internal;
 
+import com.uroria.fastconfig.ChangeEvent;
+import com.uroria.fastconfig.ConfigKey;
 import com.uroria.fastconfig.Configuration;
 import com.uroria.fastconfig.FileType;
+import com.uroria.fastconfig.KeyPath;
+import com.uroria.fastconfig.Subscription;
+import com.uroria.fastconfig.Transaction;
+import com.uroria.fastconfig.internal.utils.FileFingerprint;
 import com.uroria.fastconfig.internal.utils.FileUtils;
+import com.uroria.fastconfig.internal.utils.Schedulers;
+import com.uroria.fastconfig.internal.utils.SerialExecutor;
 import com.uroria.fastconfig.sections.ConfigFileSection;
 import it.unimi.dsi.fastutil.objects.Object2ObjectLinkedOpenHashMap;
 import it.unimi.dsi.fastutil.objects.ObjectArrayList;
 import it.unimi.dsi.fastutil.objects.ObjectArraySet;
+import it.unimi.dsi.fastutil.objects.ObjectLinkedOpenHashSet;
 import it.unimi.dsi.fastutil.objects.ObjectList;
 import lombok.Getter;
 import lombok.NonNull;
@@ -14,17 +23,52 @@ import org.jetbrains.annotations.NotNull;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
 import java.nio.file.Files;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 public abstract class AbstractConfigFile implements Configuration, Comparable<AbstractConfigFile> {
+    private static final Set<AbstractConfigFile> DIRTY_FILES = ConcurrentHashMap.newKeySet();
+    private static final AtomicBoolean SHUTDOWN_HOOK = new AtomicBoolean();
+
     protected final File file;
     protected @Getter final FileType fileType;
     protected @Getter FileData fileData;
     protected String pathPrefix;
 
+    // Write-behind state, guarded by this. A negative debounce means every mutation writes through.
+    private volatile long writeBehindDebounce = -1;
+    private long writeBehindMaxDelay;
+    private boolean dirty;
+    private boolean flushScheduled;
+    private long firstChange;
+    private long lastChange;
+    // Paths changed since the last successful write, guarded by this. A reload applies them on top of the file.
+    private final Set<KeyPath> pendingPaths = new ObjectLinkedOpenHashSet<>();
+    // Set if a change can't be described by paths, like a clear, then a reload keeps the data as it is
+    private boolean pendingAll;
+    // Created with the first listener, so files without listeners pay nothing on mutations
+    private volatile ChangeListeners listeners;
+    // What the file looked like after our last write or reload, guarded by this
+    private FileFingerprint fingerprint;
+    // Orders the async operations of this file
+    private final SerialExecutor asyncQueue = new SerialExecutor();
+
     protected AbstractConfigFile(@NonNull String name, @NonNull String path, @NonNull FileType type) {
         this.fileType = type;
         this.file = new File(path.replace("\\", "/") + File.separator + FileUtils.replaceExtensions(name) + "." + type.getExtension());
@@ -50,41 +94,274 @@ public abstract class AbstractConfigFile implements Configuration, Comparable<Ab
         return true;
     }
 
-    protected abstract Map<String, Object> readToMap() throws IOException;
-
-    protected abstract void write(@NonNull FileData data) throws IOException;
+    /**
+     * Parses the content of the file.
+     *
+     * @param source the state of the file the content was read from, with its checksum, or null if unknown
+     */
+    protected abstract Map<String, Object> readToMap(@NonNull ByteBuffer content, FileFingerprint source) throws IOException;
+
+    /**
+     * @return the CRC32C of the written content
+     */
+    protected abstract long write(@NonNull FileData data) throws IOException;
+
+    /**
+     * Whether the content passed to {@link #readToMap} may be a memory mapping of the file. Must be false while
+     * the parsed data keeps references into the content.
+     */
+    protected boolean isMappable() {
+        return true;
+    }
 
-    public final void write() {
+    /**
+     * Writes the current data to disk. Failures are passed to {@link #handleReloadException} and the changes stay
+     * pending for the next flush.
+     */
+    public final synchronized void write() {
         try {
-            write(this.fileData);
+            writeOrThrow();
         } catch (IOException exception) {
             handleReloadException(exception);
         }
     }
 
+    /**
+     * Same as {@link #write()}, but throws the checked exception. The data only counts as flushed once the
+     * write succeeded.
+     */
+    public final synchronized void writeOrThrow() throws IOException {
+        long checksum;
+        try {
+            checksum = write(this.fileData);
+        } catch (IOException exception) {
+            markDirty();
+            throw exception;
+        }
+        FileFingerprint written = FileFingerprint.stat(this.file);
+        this.fingerprint = written == null ? null : written.withChecksum(checksum);
+        this.pendingPaths.clear();
+        this.pendingAll = false;
+        if (this.dirty) {
+            this.dirty = false;
+            DIRTY_FILES.remove(this);
+        }
+    }
+
+    private void markPending(KeyPath path) {
+        if (!this.pendingAll) this.pendingPaths.add(path);
+    }
+
+    private void markPendingAll() {
+        this.pendingAll = true;
+        this.pendingPaths.clear();
+    }
+
+    private void markDirty() {
+        if (this.dirty) return;
+        this.dirty = true;
+        this.firstChange = System.nanoTime();
+        DIRTY_FILES.add(this);
+    }
+
+    /**
+     * Defers writes after mutations. The file is flushed once no mutation happened for {@code debounce},
+     * but at the latest {@code maxDelay} after the first unflushed mutation. Pending changes are also
+     * flushed on JVM shutdown.
+     */
+    public final synchronized void enableWriteBehind(@NonNull Duration debounce, @NonNull Duration maxDelay) {
+        if (debounce.isNegative() || maxDelay.compareTo(debounce) < 0) {
+            throw new IllegalArgumentException("Invalid write-behind delays " + debounce + " / " + maxDelay);
+        }
+        if (SHUTDOWN_HOOK.compareAndSet(false, true)) {
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                for (AbstractConfigFile config : DIRTY_FILES) {
+                    try {
+                        config.flush();
+                    } catch (UncheckedIOException exception) {
+                        reportError(exception.getCause());
+                    }
+                }
+            }, "FastConfig-Shutdown-Flush"));
+        }
+        this.writeBehindMaxDelay = maxDelay.toNanos();
+        this.writeBehindDebounce = debounce.toNanos();
+    }
+
+    public final synchronized void disableWriteBehind() {
+        this.writeBehindDebounce = -1;
+        flush();
+    }
+
+    public final boolean isWriteBehind() {
+        return this.writeBehindDebounce >= 0;
+    }
+
+    public final synchronized boolean isDirty() {
+        return this.dirty;
+    }
+
+    /**
+     * Writes pending changes, if any.
+     *
+     * @throws UncheckedIOException if the file cannot be written, the changes stay pending
+     */
+    public final synchronized void flush() {
+        if (!this.dirty) return;
+        try {
+            writeOrThrow();
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    /**
+     * The async methods of a file run one after another in the order they were called, on {@link Schedulers#io()}
+     * unless an executor is given, so the calling thread never waits for the disk.
+     */
+    public final CompletableFuture<Void> flushAsync() {
+        return flushAsync(Schedulers.io());
+    }
+
+    public final CompletableFuture<Void> flushAsync(@NonNull Executor executor) {
+        return this.asyncQueue.submit(executor, () -> {
+            flush();
+            return null;
+        });
+    }
+
+    /**
+     * Sets the value on the file's async queue. Readers see it once the returned future completed.
+     */
+    public final CompletableFuture<Void> setAsync(@NonNull String key, Object value) {
+        return setAsync(KeyPath.of(key), value, Schedulers.io());
+    }
+
+    public final CompletableFuture<Void> setAsync(@NonNull KeyPath key, Object value) {
+        return setAsync(key, value, Schedulers.io());
+    }
+
+    public final CompletableFuture<Void> setAsync(@NonNull KeyPath key, Object value, @NonNull Executor executor) {
+        return this.asyncQueue.submit(executor, () -> {
+            set(key, value);
+            return null;
+        });
+    }
+
+    /**
+     * Reloads on the file's async queue. Unlike {@link #reload()} the future fails if the file cannot be read.
+     */
+    public final CompletableFuture<List<String>> reloadAsync() {
+        return reloadAsync(Schedulers.io());
+    }
+
+    public final CompletableFuture<List<String>> reloadAsync(@NonNull Executor executor) {
+        return this.asyncQueue.submit(executor, () -> {
+            try {
+                return reloadOrThrow();
+            } catch (IOException exception) {
+                throw new UncheckedIOException(exception);
+            }
+        });
+    }
+
+    protected final void changed() {
+        long debounce = this.writeBehindDebounce;
+        if (debounce < 0) {
+            write();
+            return;
+        }
+        synchronized (this) {
+            markDirty();
+            this.lastChange = System.nanoTime();
+            if (!this.flushScheduled) {
+                this.flushScheduled = true;
+                scheduleFlush(debounce);
+            }
+        }
+    }
+
+    private void scheduleFlush(long delay) {
+        Schedulers.scheduler().schedule(this::flushIfDue, delay, TimeUnit.NANOSECONDS);
+    }
+
+    private synchronized void flushIfDue() {
+        this.flushScheduled = false;
+        if (!this.dirty) return;
+        long debounce = this.writeBehindDebounce;
+        if (debounce >= 0) {
+            long due = Math.min(this.lastChange + debounce, this.firstChange + this.writeBehindMaxDelay);
+            long remaining = due - System.nanoTime();
+            if (remaining > 0) {
+                this.flushScheduled = true;
+                scheduleFlush(remaining);
+                return;
+            }
+        }
+        try {
+            writeOrThrow();
+        } catch (IOException exception) {
+            // Nobody waits for a background flush, so report the failure and retry later
+            reportError(exception);
+            if (debounce >= 0) {
+                this.flushScheduled = true;
+                scheduleFlush(Math.max(debounce, this.writeBehindMaxDelay));
+            }
+        }
+    }
+
+    private static void reportError(IOException exception) {
+        Thread thread = Thread.currentThread();
+        thread.getUncaughtExceptionHandler().uncaughtException(thread, exception);
+    }
+
+    /**
+     * Receives the failures of the methods that don't throw, {@link #write()} and {@link #reload()}. They are
+     * passed to the uncaught exception handler of the current thread.
+     */
     protected final void handleReloadException(IOException exception) {
+        reportError(exception);
+    }
 
+    @Override
+    public final void set(@NonNull String key, Object value) {
+        set(KeyPath.of(key), value);
     }
 
     @Override
-    public final synchronized void set(@NonNull String key, Object value) {
-        String finalKey = this.pathPrefix == null ? key : this.pathPrefix + "." + key;
-        getFileData().insert(finalKey, value);
-        write();
+    public final synchronized void set(@NonNull KeyPath key, Object value) {
+        KeyPath path = resolveKey(key);
+        getFileData().insert(path, value);
+        markPending(path);
+        changed();
+        fire(path);
     }
 
     @Override
     public final Object get(String key) {
+        return key == null ? null : get(KeyPath.of(key));
+    }
+
+    @Override
+    public final Object get(KeyPath key) {
         if (key == null) return null;
-        final String finalKey = this.pathPrefix == null ? key : this.pathPrefix + "." + key;
-        return getFileData().get(finalKey);
+        return getFileData().get(resolveKey(key));
+    }
+
+    @Override
+    public final <T> T get(@NonNull ConfigKey<T> key) {
+        return key.read(getFileData(), resolveKey(key.getPath()));
     }
 
     @Override
     public final boolean contains(String key) {
+        return key != null && contains(KeyPath.of(key));
+    }
+
+    @Override
+    public final boolean contains(KeyPath key) {
         if (key == null) return false;
-        String finalKey = this.pathPrefix == null ? key : this.pathPrefix + "." + key;
-        return getFileData().containsKey(finalKey);
+        return getFileData().containsKey(resolveKey(key));
     }
 
     @Override
@@ -94,8 +371,13 @@ public abstract class AbstractConfigFile implements Configuration, Comparable<Ab
 
     @Override
     public Set<String> singleLayerKeySet(String key) {
+        return key == null ? new ObjectArraySet<>() : singleLayerKeySet(KeyPath.of(key));
+    }
+
+    @Override
+    public Set<String> singleLayerKeySet(KeyPath key) {
         if (key == null) return new ObjectArraySet<>();
-        return getFileData().singleLayerKeySet(key);
+        return getFileData().singleLayerKeySet(resolveKey(key));
     }
 
     @Override
@@ -105,20 +387,140 @@ public abstract class AbstractConfigFile implements Configuration, Comparable<Ab
 
     @Override
     public Set<String> keySet(String key) {
+        return key == null ? new ObjectArraySet<>() : keySet(KeyPath.of(key));
+    }
+
+    @Override
+    public Set<String> keySet(KeyPath key) {
         if (key == null) return new ObjectArraySet<>();
-        return getFileData().keySet(key);
+        return getFileData().keySet(resolveKey(key));
+    }
+
+    @Override
+    public void forEachLeaf(@NonNull BiConsumer<CharSequence, Object> visitor) {
+        if (this.pathPrefix == null) getFileData().forEachLeaf(visitor);
+        else getFileData().forEachLeaf(KeyPath.of(this.pathPrefix), visitor);
+    }
+
+    @Override
+    public void forEachNode(@NonNull BiConsumer<CharSequence, Map<String, Object>> visitor) {
+        if (this.pathPrefix == null) getFileData().forEachNode(visitor);
+        else getFileData().forEachNode(KeyPath.of(this.pathPrefix), visitor);
+    }
+
+    @Override
+    public Stream<Map.Entry<String, Object>> leafStream() {
+        if (this.pathPrefix == null) return getFileData().leafStream();
+        return getFileData().leafStream(KeyPath.of(this.pathPrefix));
     }
 
     @Override
     public void remove(String key) {
         if (key == null) return;
-        getFileData().remove(key);
-        write();
+        remove(KeyPath.of(key));
     }
 
-    public final void putAll(@NonNull Map<String, Object> map) {
-        getFileData().putAll(map);
-        write();
+    @Override
+    public synchronized void remove(KeyPath key) {
+        if (key == null) return;
+        KeyPath path = resolveKey(key);
+        getFileData().remove(path);
+        markPending(path);
+        changed();
+        fire(path);
+    }
+
+    /**
+     * Puts the entries at the top level of this config, or of its path prefix. The keys are taken literally
+     * and not split at dots.
+     */
+    public final synchronized void putAll(@NonNull Map<String, Object> map) {
+        if (this.pathPrefix == null) {
+            getFileData().putAll(map);
+            for (String key : map.keySet()) {
+                // A literal key with a dot has no key path
+                if (key.indexOf('.') >= 0) markPendingAll();
+                else markPending(KeyPath.of(key));
+            }
+            changed();
+            fire(map.keySet());
+            return;
+        }
+        KeyPath section = KeyPath.of(this.pathPrefix);
+        getFileData().putAll(section, map);
+        markPending(section);
+        changed();
+        List<String> paths = new ObjectArrayList<>(map.size());
+        for (String key : map.keySet()) {
+            paths.add(this.pathPrefix + "." + key);
+        }
+        fire(paths);
+    }
+
+    @Override
+    public final synchronized void batch(@NonNull Consumer<Transaction> action) {
+        FileTransaction transaction = new FileTransaction(this.pathPrefix == null ? null : KeyPath.of(this.pathPrefix));
+        action.accept(transaction);
+        if (transaction.isEmpty()) return;
+        Set<String> paths = this.listeners == null ? null : new ObjectLinkedOpenHashSet<>();
+        transaction.apply(getFileData(), paths);
+        if (!this.pendingAll && !transaction.collectPaths(this.pendingPaths)) markPendingAll();
+        changed();
+        if (paths != null) fire(paths);
+    }
+
+    /**
+     * Calls the listener after every operation that changes a value at or below the key, including
+     * reloads. A null key listens to the whole file. Without an executor the listener runs on the
+     * mutating thread while this config is still locked.
+     */
+    @Override
+    public final Subscription onChange(KeyPath key, @NonNull Executor executor, @NonNull Consumer<ChangeEvent> listener) {
+        ChangeListeners listeners = this.listeners;
+        if (listeners == null) {
+            synchronized (this) {
+                listeners = this.listeners;
+                if (listeners == null) {
+                    listeners = new ChangeListeners();
+                    this.listeners = listeners;
+                }
+            }
+        }
+        KeyPath path = key == null ? (this.pathPrefix == null ? null : KeyPath.of(this.pathPrefix)) : resolveKey(key);
+        return listeners.register(path, executor, listener);
+    }
+
+    private void fire(KeyPath path) {
+        ChangeListeners listeners = this.listeners;
+        if (listeners != null) listeners.fire(this, path.toString());
+    }
+
+    private void fire(Collection<String> paths) {
+        ChangeListeners listeners = this.listeners;
+        if (listeners != null && !paths.isEmpty()) listeners.fire(this, paths);
+    }
+
+    /**
+     * Switches the data to copy-on-write, making reads lock-free and safe next to concurrent writers.
+     */
+    public final void setConcurrent(boolean concurrent) {
+        getFileData().setConcurrent(concurrent);
+    }
+
+    public final boolean isConcurrent() {
+        return getFileData().isConcurrent();
+    }
+
+    public final void setIndexed(boolean indexed) {
+        getFileData().setIndexed(indexed);
+    }
+
+    public final boolean isIndexed() {
+        return getFileData().isIndexed();
+    }
+
+    public final FileData snapshot() {
+        return getFileData().snapshot();
     }
 
     public final Map<String, Object> getData() {
@@ -133,20 +535,26 @@ public abstract class AbstractConfigFile implements Configuration, Comparable<Ab
         return result;
     }
 
-    public final void removeAll(String... keys) {
+    public final synchronized void removeAll(String... keys) {
         for (String key : keys) {
             getFileData().remove(key);
+            markPending(KeyPath.of(key));
         }
-        write();
+        changed();
+        fire(Arrays.asList(keys));
     }
 
-    public final void addDefaultsFromFileData(@NonNull FileData newData) {
+    public final synchronized void addDefaultsFromFileData(@NonNull FileData newData) {
+        ObjectList<String> added = new ObjectArrayList<>();
         for (String key : newData.keySet()) {
             if (!getFileData().containsKey(key)) {
                 getFileData().insert(key, newData.get(key));
+                markPending(KeyPath.of(key));
+                added.add(key);
             }
         }
-        write();
+        changed();
+        fire(added);
     }
 
     public final void addDefaultsFromMap(@NonNull Map<String, Object> map) {
@@ -167,24 +575,103 @@ public abstract class AbstractConfigFile implements Configuration, Comparable<Ab
         for (String line : lines) {
             result.add(line.replace(target, replacement));
         }
-        Files.write(this.file.toPath(), result);
+        FileUtils.replaceContent(this.file, result);
     }
 
-    public final void reload() {
-        Map<String, Object> map = new Object2ObjectLinkedOpenHashMap<>();
+    /**
+     * Re-reads the file and merges it into the current data, keeping everything that did not change.
+     * If the file cannot be read the current data is kept and the failure goes to {@link #handleReloadException}.
+     *
+     * @return the dotted paths that changed
+     */
+    public final synchronized List<String> reload() {
         try {
-            map = readToMap();
+            return reloadOrThrow();
         } catch (IOException exception) {
             handleReloadException(exception);
-        } finally {
-            if (getFileData() == null) this.fileData = new FileData(map);
-            else getFileData().loadData(map);
+            return Collections.emptyList();
         }
     }
 
-    public final void clear() {
+    /**
+     * Same as {@link #reload()}, but throws instead of keeping the current data if the file cannot be read.
+     * <p>
+     * Changes that were not written yet, because of write-behind or a failed write, are neither written nor
+     * dropped: the paths they touched keep their current values on top of what was read, everything else comes
+     * from the file, and they stay pending for the next flush. After a {@link #clear()} or a {@code putAll} with
+     * a dotted top-level key the changed paths are unknown, then the whole current data wins until the next
+     * flush. Call {@link #flush()} first to write the changes instead.
+     */
+    @SuppressWarnings("unchecked")
+    public final synchronized List<String> reloadOrThrow() throws IOException {
+        if (getFileData() == null) this.fileData = new FileData(Collections.emptyMap());
+        // Taken before reading, so a change during the read shows up as a differing stat next time
+        FileFingerprint source = FileFingerprint.stat(this.file);
+        ByteBuffer content = FileUtils.readContent(this.file, isMappable());
+        if (source != null) source = source.withChecksum(content);
+        Map<String, Object> map = readToMap(content, source);
+        this.fingerprint = source;
+        if (this.dirty) {
+            if (this.pendingAll) return Collections.emptyList();
+            map = applyPending(map);
+        }
+        List<String> changed = map instanceof Object2ObjectLinkedOpenHashMap
+                ? getFileData().adoptData((Object2ObjectLinkedOpenHashMap<String, Object>) map)
+                : getFileData().loadData(map);
+        fire(changed);
+        return changed;
+    }
+
+    /**
+     * Copies the current value of every pending path into the freshly read data, or removes it there if it was
+     * removed here.
+     */
+    private Map<String, Object> applyPending(Map<String, Object> map) {
+        FileData current = getFileData();
+        FileData merged = new FileData(map);
+        for (KeyPath path : this.pendingPaths) {
+            if (current.containsKey(path)) merged.insert(path, current.get(path));
+            else merged.remove(path);
+        }
+        return merged.toMap();
+    }
+
+    /**
+     * Reloads only if the file changed since it was last written or read by this instance. Size and
+     * modification time are compared first, the checksum only if they differ. Unflushed changes are kept
+     * as described at {@link #reloadOrThrow()}.
+     *
+     * @return whether the file was reloaded
+     */
+    public final synchronized boolean reloadIfChanged() {
+        FileFingerprint current = FileFingerprint.stat(this.file);
+        if (current == null || current.sameStat(this.fingerprint)) return false;
+        current = current.withChecksum(this.file);
+        if (current == null) return false;
+        if (current.sameContent(this.fingerprint)) {
+            this.fingerprint = current;
+            return false;
+        }
+        try {
+            reloadOrThrow();
+        } catch (IOException exception) {
+            handleReloadException(exception);
+            // Not retried before the file changes again
+            this.fingerprint = current;
+        }
+        return true;
+    }
+
+    public final synchronized void clear() {
+        List<String> removed = this.listeners == null ? null : new ObjectArrayList<>(getFileData().singleLayerKeySet());
         getFileData().clear();
-        write();
+        markPendingAll();
+        changed();
+        if (removed != null) fire(removed);
+    }
+
+    public final KeyPath resolveKey(@NonNull KeyPath key) {
+        return this.pathPrefix == null ? key : KeyPath.of(this.pathPrefix).resolve(key);
     }
 
     public final void clearPathPrefix() {
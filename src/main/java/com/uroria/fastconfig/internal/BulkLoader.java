@@ -0,0 +1,87 @@
+package com.uroria.fastconfig.internal;
+
+import com.uroria.fastconfig.FileType;
+import com.uroria.fastconfig.LoadResult;
+import it.unimi.dsi.fastutil.objects.Object2ObjectLinkedOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import lombok.NonNull;
+import lombok.experimental.UtilityClass;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Loads all files of one type in a directory in parallel. Each file is a separate task, so a bad file only
+ * fails itself and the batch takes about as long as the slowest file once there are enough threads.
+ */
+@UtilityClass
+public class BulkLoader {
+
+    @FunctionalInterface
+    public interface Loader<C> {
+        C load(File file) throws IOException;
+    }
+
+    /**
+     * Loads every regular file with the extension of the type directly inside the directory.
+     *
+     * @throws UncheckedIOException if the directory itself cannot be listed
+     */
+    @SuppressWarnings("unchecked")
+    public <C extends AbstractConfigFile> LoadResult<C> loadAll(@NonNull Path directory, @NonNull FileType type,
+                                                                @NonNull Executor executor, @NonNull Loader<C> loader) {
+        List<Path> files = list(directory, type.getExtension());
+        int size = files.size();
+        Object[] configs = new Object[size];
+        Throwable[] errors = new Throwable[size];
+        CompletableFuture<?>[] tasks = new CompletableFuture<?>[size];
+        for (int i = 0; i < size; i++) {
+            int slot = i;
+            try {
+                tasks[i] = CompletableFuture.runAsync(() -> {
+                    try {
+                        configs[slot] = loader.load(files.get(slot).toFile());
+                    } catch (Throwable throwable) {
+                        // Recorded for this file alone, a failed task would fail the join of the whole batch
+                        errors[slot] = throwable;
+                    }
+                }, executor);
+            } catch (RejectedExecutionException exception) {
+                // A saturated or shut down executor only fails the files it refused, the others still load
+                errors[i] = exception;
+                tasks[i] = CompletableFuture.completedFuture(null);
+            }
+        }
+        CompletableFuture.allOf(tasks).join();
+
+        Object2ObjectLinkedOpenHashMap<Path, C> loaded = new Object2ObjectLinkedOpenHashMap<>(size);
+        Object2ObjectLinkedOpenHashMap<Path, Throwable> failed = new Object2ObjectLinkedOpenHashMap<>();
+        for (int i = 0; i < size; i++) {
+            if (errors[i] != null) failed.put(files.get(i), errors[i]);
+            else loaded.put(files.get(i), (C) configs[i]);
+        }
+        return new LoadResult<>(loaded, failed);
+    }
+
+    private List<Path> list(Path directory, String extension) {
+        List<Path> files = new ObjectArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*." + extension)) {
+            for (Path file : stream) {
+                if (Files.isRegularFile(file)) files.add(file);
+            }
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+        Collections.sort(files);
+        return files;
+    }
+}
@@ -0,0 +1,149 @@
+package com.uroria.fastconfig.internal;
+
+import com.uroria.fastconfig.ChangeEvent;
+import com.uroria.fastconfig.Configuration;
+import com.uroria.fastconfig.KeyPath;
+import com.uroria.fastconfig.Subscription;
+import it.unimi.dsi.fastutil.objects.Object2ObjectLinkedOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import it.unimi.dsi.fastutil.objects.ObjectLinkedOpenHashSet;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+
+/**
+ * Change listeners stored in a trie of key parts. A changed path only visits the nodes along that path and,
+ * if the change replaced a whole section, the listeners below it.
+ */
+final class ChangeListeners {
+    private final Node root = new Node();
+
+    synchronized Subscription register(KeyPath key, Executor executor, Consumer<ChangeEvent> listener) {
+        Node node = this.root;
+        if (key != null) {
+            for (int i = 0; i < key.size(); i++) {
+                node = node.child(key.part(i));
+            }
+        }
+        Registration registration = new Registration(this, key, executor, listener);
+        node.registrations.add(registration);
+        return registration;
+    }
+
+    private synchronized void unregister(Registration registration) {
+        KeyPath key = registration.key;
+        ObjectArrayList<Node> path = new ObjectArrayList<>();
+        Node node = this.root;
+        path.add(node);
+        if (key != null) {
+            for (int i = 0; i < key.size() && node != null; i++) {
+                node = node.children == null ? null : node.children.get(key.part(i));
+                path.add(node);
+            }
+        }
+        if (node == null || !node.registrations.remove(registration)) return;
+        // Drop nodes that no longer lead to any listener
+        for (int i = path.size() - 1; i > 0 && path.get(i).isEmpty(); i--) {
+            path.get(i - 1).children.remove(key.part(i - 1));
+        }
+    }
+
+    /**
+     * Notifies every listener whose key is a prefix of a changed path, or lies below one. Each listener
+     * receives a single event with all of its paths.
+     */
+    void fire(Configuration source, Iterable<String> paths) {
+        Map<Registration, ObjectLinkedOpenHashSet<String>> hits = new Object2ObjectLinkedOpenHashMap<>();
+        synchronized (this) {
+            for (String path : paths) {
+                collect(KeyPath.of(path), path, hits);
+            }
+        }
+        for (Map.Entry<Registration, ObjectLinkedOpenHashSet<String>> entry : hits.entrySet()) {
+            Registration registration = entry.getKey();
+            ChangeEvent event = new ChangeEvent(source, Collections.unmodifiableList(new ObjectArrayList<>(entry.getValue())));
+            registration.executor.execute(() -> {
+                if (!registration.closed) registration.listener.accept(event);
+            });
+        }
+    }
+
+    void fire(Configuration source, String path) {
+        fire(source, Collections.singletonList(path));
+    }
+
+    private void collect(KeyPath key, String path, Map<Registration, ObjectLinkedOpenHashSet<String>> hits) {
+        Node node = this.root;
+        add(node, path, hits);
+        for (int i = 0; i < key.size(); i++) {
+            node = node.children == null ? null : node.children.get(key.part(i));
+            if (node == null) return;
+            add(node, path, hits);
+        }
+        if (node.children != null) {
+            for (Node child : node.children.values()) {
+                collectBelow(child, hits);
+            }
+        }
+    }
+
+    private void collectBelow(Node node, Map<Registration, ObjectLinkedOpenHashSet<String>> hits) {
+        for (Registration registration : node.registrations) {
+            add(registration, registration.key.toString(), hits);
+        }
+        if (node.children != null) {
+            for (Node child : node.children.values()) {
+                collectBelow(child, hits);
+            }
+        }
+    }
+
+    private void add(Node node, String path, Map<Registration, ObjectLinkedOpenHashSet<String>> hits) {
+        for (Registration registration : node.registrations) {
+            add(registration, path, hits);
+        }
+    }
+
+    private void add(Registration registration, String path, Map<Registration, ObjectLinkedOpenHashSet<String>> hits) {
+        hits.computeIfAbsent(registration, key -> new ObjectLinkedOpenHashSet<>()).add(path);
+    }
+
+    private static final class Node {
+        private final ObjectArrayList<Registration> registrations = new ObjectArrayList<>(1);
+        private Map<String, Node> children;
+
+        private Node child(String part) {
+            if (this.children == null) this.children = new Object2ObjectOpenHashMap<>();
+            return this.children.computeIfAbsent(part, key -> new Node());
+        }
+
+        private boolean isEmpty() {
+            return this.registrations.isEmpty() && (this.children == null || this.children.isEmpty());
+        }
+    }
+
+    private static final class Registration implements Subscription {
+        private final ChangeListeners owner;
+        private final KeyPath key;
+        private final Executor executor;
+        private final Consumer<ChangeEvent> listener;
+        private volatile boolean closed;
+
+        private Registration(ChangeListeners owner, KeyPath key, Executor executor, Consumer<ChangeEvent> listener) {
+            this.owner = owner;
+            this.key = key;
+            this.executor = executor;
+            this.listener = listener;
+        }
+
+        @Override
+        public void close() {
+            if (this.closed) return;
+            this.closed = true;
+            this.owner.unregister(this);
+        }
+    }
+}
@@ -1,73 +1,444 @@
 package com.uroria.fastconfig.internal;
 
+import com.uroria.fastconfig.KeyPath;
 import com.uroria.fastconfig.internal.utils.JsonUtils;
+import com.uroria.fastconfig.internal.utils.LazyJsonMap;
+import com.uroria.fastconfig.internal.utils.StringPool;
+import it.unimi.dsi.fastutil.doubles.DoubleArrayList;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
 import it.unimi.dsi.fastutil.objects.Object2ObjectLinkedOpenHashMap;
-import it.unimi.dsi.fastutil.objects.Object2ObjectSortedMap;
+import it.unimi.dsi.fastutil.objects.Object2ObjectMap;
+import it.unimi.dsi.fastutil.objects.Object2ObjectMaps;
+import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
 import it.unimi.dsi.fastutil.objects.ObjectArraySet;
+import it.unimi.dsi.fastutil.objects.ObjectLinkedOpenHashSet;
+import lombok.NonNull;
 import org.jetbrains.annotations.NotNull;
 import org.json.JSONObject;
 
 import java.util.AbstractMap;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.Set;
-
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.BiConsumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Holds the parsed tree of a config file. In {@link #setConcurrent(boolean) concurrent} mode the tree is never
+ * modified after it was published: writers copy the maps along the changed path and swap the root atomically,
+ * together with the index if there is one, so readers never lock and never observe a half applied change.
+ * Maps returned in that mode must be treated as read-only.
+ */
 @SuppressWarnings("unchecked")
 public class FileData {
-    private final Object2ObjectSortedMap<String, Object> localMap;
+    private static final Object NULL = new Object();
+    private static final Object REMOVED = new Object();
 
-    public FileData(Map<String, Object> map) {
-        this.localMap = new Object2ObjectLinkedOpenHashMap<>();
+    private volatile Tree tree;
+    // The tree a running batch writes to, guarded by this and never read by lock-free readers
+    private Tree pending;
+    private final boolean readOnly;
+    private volatile boolean concurrent;
+    // Incremented after every mutation, so a reader that saw the old count never caches a newer value as current
+    private volatile long modificationCount;
 
-        this.localMap.putAll(map);
+    public FileData(Map<String, Object> map) {
+        this(new Object2ObjectLinkedOpenHashMap<>(map), false);
     }
 
     public FileData(JSONObject jsonObject) {
-        this.localMap = new Object2ObjectLinkedOpenHashMap<>(jsonObject.toMap());
+        this(new Object2ObjectLinkedOpenHashMap<>(jsonObject.toMap()), false);
+    }
+
+    private FileData(Object2ObjectLinkedOpenHashMap<String, Object> root, boolean readOnly) {
+        this.tree = new Tree(root, null);
+        this.readOnly = readOnly;
+        this.concurrent = readOnly;
+    }
+
+    /**
+     * Leaving concurrent mode copies the tree once, since later writes change it in place and snapshots taken
+     * before still share the published maps.
+     */
+    public synchronized void setConcurrent(boolean concurrent) {
+        checkWritable();
+        if (this.pending != null) throw new IllegalStateException("Can't change the mode during a batch");
+        if (this.concurrent && !concurrent) {
+            Tree tree = this.tree;
+            Object2ObjectLinkedOpenHashMap<String, Object> root = (Object2ObjectLinkedOpenHashMap<String, Object>) deepCopy(tree.root);
+            Object2ObjectOpenHashMap<String, Object> index = null;
+            if (tree.index != null) {
+                index = new Object2ObjectOpenHashMap<>();
+                indexSubtree(index, null, root);
+            }
+            this.tree = new Tree(root, index);
+        }
+        this.concurrent = concurrent;
+    }
+
+    /**
+     * Keeps a flat index from dotted paths to values, so lookups cost one hash probe regardless of the depth.
+     * Costs one entry per node, and maps changed directly instead of through this class are not tracked.
+     * In concurrent mode every write copies the index, so it pays off for files that are read far more
+     * often than written.
+     */
+    public synchronized void setIndexed(boolean indexed) {
+        checkWritable();
+        if (this.pending != null) throw new IllegalStateException("Can't change the index during a batch");
+        Tree tree = this.tree;
+        if (!indexed) {
+            this.tree = new Tree(tree.root, null);
+            return;
+        }
+        Object2ObjectOpenHashMap<String, Object> index = new Object2ObjectOpenHashMap<>();
+        indexSubtree(index, null, tree.root);
+        this.tree = new Tree(tree.root, index);
+    }
+
+    public boolean isIndexed() {
+        return this.tree.index != null;
+    }
+
+    public boolean isConcurrent() {
+        return this.concurrent;
+    }
+
+    public boolean isReadOnly() {
+        return this.readOnly;
+    }
+
+    /**
+     * Returns a read-only view of the current tree. Free in concurrent mode, a deep copy otherwise.
+     */
+    public FileData snapshot() {
+        if (this.concurrent) {
+            return new FileData(this.tree.root, true);
+        }
+        synchronized (this) {
+            return new FileData((Object2ObjectLinkedOpenHashMap<String, Object>) deepCopy(this.tree.root), true);
+        }
+    }
+
+    public synchronized void clear() {
+        checkWritable();
+        Tree tree = current();
+        if (this.concurrent && this.pending == null) {
+            publish(new Tree(new Object2ObjectLinkedOpenHashMap<>(), tree.index == null ? null : new Object2ObjectOpenHashMap<>()));
+        } else {
+            tree.root.clear();
+            if (tree.index != null) tree.index.clear();
+            publish(tree);
+        }
+    }
+
+    /**
+     * Replaces the tree with the given map through a structural diff. Subtrees and values that did not change
+     * keep their identity and the modification count only moves if something changed.
+     *
+     * @return the dotted path of every value that was added, removed or replaced
+     */
+    public List<String> loadData(Map<String, Object> map) {
+        return merge(map == null ? Collections.emptyMap() : map, false);
+    }
+
+    public long getModificationCount() {
+        return this.modificationCount;
+    }
+
+    /**
+     * Same as {@link #loadData(Map)}, but may reuse the maps of the given tree instead of copying them.
+     * Only used for freshly parsed maps nobody else references.
+     */
+    List<String> adoptData(Object2ObjectLinkedOpenHashMap<String, Object> map) {
+        return merge(map, true);
+    }
+
+    private synchronized List<String> merge(Map<String, Object> map, boolean owned) {
+        checkWritable();
+        Tree tree = current();
+        Object2ObjectOpenHashMap<String, Object> index = tree.index;
+        Changes changes = new Changes(index != null);
+        Map<String, Object> merged = merge(tree.root, map, new StringBuilder(64), index != null, owned, changes);
+        if (merged == tree.root) return changes.paths;
+        if (index != null) {
+            if (this.concurrent) index = index.clone();
+            for (int i = 0; i < changes.changed.size(); i++) {
+                String path = changes.changed.get(i);
+                unindexValue(index, path, changes.previous.get(i));
+                Object value = changes.current.get(i);
+                if (value != REMOVED) indexValue(index, path, value);
+            }
+            for (int i = 0; i < changes.nodePaths.size(); i++) {
+                index.put(changes.nodePaths.get(i), changes.nodes.get(i));
+            }
+        }
+        publish(new Tree((Object2ObjectLinkedOpenHashMap<String, Object>) merged, index));
+        return changes.paths;
+    }
+
+    /**
+     * Returns {@code previous} itself if nothing below it changed. Otherwise returns the new map, with every
+     * unchanged child replaced by the previous instance. The new map is only modified if it is owned,
+     * a copy of it is made otherwise.
+     */
+    private Map<String, Object> merge(Map<String, Object> previous, Map<String, Object> map, StringBuilder path,
+                                      boolean indexable, boolean owned, Changes changes) {
+        Map<String, Object> result = owned && map instanceof Object2ObjectLinkedOpenHashMap ? map : createNewMap(map);
+        boolean same = previous.size() == result.size();
+        Iterator<String> order = same ? previous.keySet().iterator() : null;
+        int length = path.length();
+        for (Map.Entry<String, Object> entry : result.entrySet()) {
+            String key = entry.getKey();
+            if (same && !key.equals(order.next())) same = false;
+            if (length > 0) path.append('.');
+            path.append(key);
+            boolean indexed = indexable && key.indexOf('.') < 0;
+            Object value = entry.getValue();
+            if (!previous.containsKey(key)) {
+                same = false;
+                changes.add(path, null, value, indexed);
+            } else {
+                Object old = previous.get(key);
+                Object merged;
+                if (old instanceof LazyJsonMap && value instanceof LazyJsonMap
+                        && !((LazyJsonMap) old).isParsed() && !((LazyJsonMap) value).isParsed()) {
+                    // Nobody looked at either side yet, so they are compared by bytes and never parsed
+                    if (LazyJsonMap.sameContent((LazyJsonMap) old, (LazyJsonMap) value)) {
+                        merged = old;
+                    } else {
+                        merged = value;
+                        changes.add(path, old, value, indexed);
+                    }
+                } else if (old instanceof Map && value instanceof Map) {
+                    merged = merge((Map<String, Object>) old, (Map<String, Object>) value, path, indexed, owned, changes);
+                } else if (Objects.equals(old, value)) {
+                    merged = old;
+                } else {
+                    merged = value;
+                    changes.add(path, old, value, indexed);
+                }
+                if (merged != old) same = false;
+                if (merged != value) entry.setValue(merged);
+            }
+            path.setLength(length);
+        }
+        if (same) return previous;
+        for (Map.Entry<String, Object> entry : previous.entrySet()) {
+            String key = entry.getKey();
+            if (result.containsKey(key)) continue;
+            if (length > 0) path.append('.');
+            path.append(key);
+            changes.add(path, entry.getValue(), REMOVED, indexable && key.indexOf('.') < 0);
+            path.setLength(length);
+        }
+        if (indexable && length > 0) changes.node(path, result);
+        return result;
+    }
+
+    /**
+     * Re-indexes the ancestors of a changed key and replaces the entries of its previous value with the current one.
+     */
+    private void updateIndex(Tree tree, KeyPath key, Object previous) {
+        Map<String, Object> index = tree.index;
+        if (index == null) return;
+        Map<String, Object> node = tree.root;
+        String path = null;
+        for (int i = 0; i < key.size(); i++) {
+            String part = key.part(i);
+            path = path == null ? part : path + "." + part;
+            boolean present = node != null && node.containsKey(part);
+            Object value = present ? node.get(part) : null;
+            if (i < key.size() - 1) {
+                if (present) index.put(path, value == null ? NULL : value);
+                else index.remove(path);
+                node = value instanceof Map ? (Map<String, Object>) value : null;
+            } else {
+                unindexValue(index, path, previous);
+                if (present) indexValue(index, path, value);
+            }
+        }
+    }
+
+    // Keys containing a dot can never be reached through a split key path, so they are left out of the index
+    private void indexSubtree(Map<String, Object> index, String prefix, Map<String, Object> map) {
+        for (Map.Entry<String, Object> entry : map.entrySet()) {
+            String key = entry.getKey();
+            if (key.indexOf('.') >= 0) continue;
+            indexValue(index, prefix == null ? key : prefix + "." + key, entry.getValue());
+        }
+    }
+
+    private void indexValue(Map<String, Object> index, String path, Object value) {
+        index.put(path, value == null ? NULL : value);
+        if (value instanceof Map) {
+            indexSubtree(index, path, (Map<String, Object>) value);
+        }
+    }
+
+    private void unindexValue(Map<String, Object> index, String path, Object value) {
+        index.remove(path);
+        if (value instanceof Map) {
+            for (Map.Entry<String, Object> entry : ((Map<String, Object>) value).entrySet()) {
+                if (entry.getKey().indexOf('.') >= 0) continue;
+                unindexValue(index, path + "." + entry.getKey(), entry.getValue());
+            }
+        }
     }
 
-    public void clear() {
-        this.localMap.clear();
+    /**
+     * Returns the tree a mutation may change in place. In concurrent mode that is a private copy of the root
+     * and the index, which only becomes visible to readers once it is published.
+     */
+    private Tree writable() {
+        checkWritable();
+        if (this.pending != null) return this.pending;
+        Tree tree = this.tree;
+        if (!this.concurrent) return tree;
+        return new Tree(new Object2ObjectLinkedOpenHashMap<>(tree.root), tree.index == null ? null : tree.index.clone());
     }
 
-    public void loadData(Map<String, Object> map) {
-        clear();
+    // Only called while holding the lock
+    private Tree current() {
+        Tree pending = this.pending;
+        return pending != null ? pending : this.tree;
+    }
 
-        if (map != null) {
-            this.localMap.putAll(map);
+    private void publish(Tree tree) {
+        if (this.pending != null) {
+            this.pending = tree;
+            return;
+        }
+        this.tree = tree;
+        this.modificationCount++;
+    }
+
+    /**
+     * Runs the mutations of the action as one change, the modification count moves only once. In concurrent mode
+     * readers see all of them at once, or none if the action throws. Outside concurrent mode they are applied in
+     * place and a failing action leaves the ones before it applied, which is why only {@link FileTransaction}, whose
+     * operations are collected up front, may call this.
+     */
+    synchronized void batch(@NonNull Runnable action) {
+        checkWritable();
+        if (this.pending != null) {
+            action.run();
+            return;
+        }
+        this.pending = writable();
+        boolean completed = false;
+        try {
+            action.run();
+            completed = true;
+        } finally {
+            Tree tree = this.pending;
+            this.pending = null;
+            // Changes made in place can't be undone, so outside concurrent mode they are kept even after a failure
+            if (completed || !this.concurrent) publish(tree);
+        }
+    }
+
+    /**
+     * The top level keys including the changes of a running batch, only valid while holding the lock.
+     */
+    synchronized Set<String> currentKeySet() {
+        return current().root.keySet();
+    }
+
+    private void checkWritable() {
+        if (this.readOnly) {
+            throw new UnsupportedOperationException("FileData snapshots are read-only");
+        }
+    }
+
+    private Object deepCopy(Object value) {
+        if (value instanceof LazyJsonMap) {
+            LazyJsonMap copy = ((LazyJsonMap) value).copy();
+            if (copy != null) return copy;
+        }
+        if (value instanceof Map) {
+            Map<String, Object> map = (Map<String, Object>) value;
+            Object2ObjectLinkedOpenHashMap<String, Object> copy = new Object2ObjectLinkedOpenHashMap<>(map.size());
+            for (Map.Entry<String, Object> entry : map.entrySet()) {
+                copy.put(entry.getKey(), deepCopy(entry.getValue()));
+            }
+            return copy;
+        } else if (value instanceof IntArrayList) {
+            return ((IntArrayList) value).clone();
+        } else if (value instanceof LongArrayList) {
+            return ((LongArrayList) value).clone();
+        } else if (value instanceof DoubleArrayList) {
+            return ((DoubleArrayList) value).clone();
+        } else if (value instanceof List) {
+            List<Object> list = (List<Object>) value;
+            ObjectArrayList<Object> copy = new ObjectArrayList<>(list.size());
+            for (Object element : list) {
+                copy.add(deepCopy(element));
+            }
+            return copy;
         }
+        return value;
     }
 
     public Object get(String key) {
-        String[] parts = key.split("\\.");
-        return get(this.localMap, parts, 0);
+        return get(KeyPath.of(key));
+    }
+
+    public Object get(KeyPath key) {
+        return get(this.tree, key);
+    }
+
+    private Object get(Tree tree, KeyPath key) {
+        if (tree.index != null) {
+            Object value = tree.index.get(key.toString());
+            return value == NULL ? null : value;
+        }
+        return get(tree.root, key, 0);
     }
 
-    private Object get(Map<String, Object> map, String[] key, int id) {
-        if (id < key.length - 1) {
-            if (map.get(key[id]) instanceof Map) {
-                Map<String, Object> tempMap = (Map<String, Object>) map.get(key[id]);
+    private Object get(Map<String, Object> map, KeyPath key, int id) {
+        if (id < key.size() - 1) {
+            if (map.get(key.part(id)) instanceof Map) {
+                Map<String, Object> tempMap = (Map<String, Object>) map.get(key.part(id));
                 return get(tempMap, key, id + 1);
             } else {
                 return null;
             }
         } else {
-            return map.get(key[id]);
+            return map.get(key.part(id));
         }
     }
 
-    public synchronized void insert(String key, Object value) {
-        String[] parts = key.split("\\.");
-        this.localMap.put(parts[0], this.localMap.containsKey(parts[0]) && this.localMap.get(parts[0]) instanceof Map
-                        ? insert((Map<String, Object>) this.localMap.get(parts[0]), parts, value, 1)
-                        : insert(createNewMap(), parts, value, 1));
+    public void insert(String key, Object value) {
+        insert(KeyPath.of(key), value);
+    }
+
+    public synchronized void insert(KeyPath key, Object value) {
+        Tree tree = writable();
+        Object previous = tree.index == null ? null : get(tree, key);
+        Object2ObjectLinkedOpenHashMap<String, Object> data = tree.root;
+        String first = StringPool.intern(key.part(0));
+        value = StringPool.internValue(value);
+        data.put(first, data.containsKey(first) && data.get(first) instanceof Map
+                        ? insert((Map<String, Object>) data.get(first), key, value, 1)
+                        : insert(createNewMap(), key, value, 1));
+        updateIndex(tree, key, previous);
+        publish(tree);
     }
 
-    private Object insert(Map<String, Object> map, String[] key, Object value, int id) {
-        if (id < key.length) {
+    private Object insert(Map<String, Object> map, KeyPath key, Object value, int id) {
+        if (id < key.size()) {
             Map<String, Object> tempMap = createNewMap(map);
-            Map<String, Object> childMap = map.containsKey(key[id]) && map.get(key[id]) instanceof Map ? (Map<String, Object>) map.get(key[id]) : createNewMap();
-            tempMap.put(key[id], insert(childMap, key, value, id + 1));
+            Map<String, Object> childMap = map.containsKey(key.part(id)) && map.get(key.part(id)) instanceof Map ? (Map<String, Object>) map.get(key.part(id)) : createNewMap();
+            tempMap.put(StringPool.intern(key.part(id)), insert(childMap, key, value, id + 1));
             return tempMap;
         } else {
             return value;
@@ -75,42 +446,58 @@ public class FileData {
     }
 
     public boolean containsKey(String key) {
+        return containsKey(KeyPath.of(key));
+    }
 
-        String[] parts = key.split("\\.");
-        return containsKey(this.localMap, parts, 0);
+    public boolean containsKey(KeyPath key) {
+        return containsKey(this.tree, key);
     }
 
-    private boolean containsKey(Map<String, Object> map, String[] key, int id) {
-        if (id < key.length - 1) {
-            if (map.containsKey(key[id]) && map.get(key[id]) instanceof Map) {
-                Map<String, Object> tempMap = (Map<String, Object>) map.get(key[id]);
+    private boolean containsKey(Tree tree, KeyPath key) {
+        if (tree.index != null) {
+            return tree.index.containsKey(key.toString());
+        }
+        return containsKey(tree.root, key, 0);
+    }
+
+    private boolean containsKey(Map<String, Object> map, KeyPath key, int id) {
+        if (id < key.size() - 1) {
+            if (map.containsKey(key.part(id)) && map.get(key.part(id)) instanceof Map) {
+                Map<String, Object> tempMap = (Map<String, Object>) map.get(key.part(id));
                 return containsKey(tempMap, key, id + 1);
             } else {
                 return false;
             }
         } else {
-            return map.containsKey(key[id]);
+            return map.containsKey(key.part(id));
         }
     }
 
-    public synchronized void remove(String key) {
-        if (containsKey(key)) {
-            String[] parts = key.split("\\.");
-            remove(parts);
-        }
+    public void remove(String key) {
+        remove(KeyPath.of(key));
+    }
+
+    public synchronized void remove(KeyPath key) {
+        if (!containsKey(current(), key)) return;
+        Tree tree = writable();
+        Object previous = tree.index == null ? null : get(tree, key);
+        removeKey(tree.root, key);
+        updateIndex(tree, key, previous);
+        publish(tree);
     }
 
-    private void remove(@NotNull String[] key) {
-        if (key.length == 1) {
-            this.localMap.remove(key[0]);
+    private void removeKey(Object2ObjectLinkedOpenHashMap<String, Object> data, @NotNull KeyPath key) {
+        if (key.size() == 1) {
+            data.remove(key.part(0));
         } else {
 
-            Object tempValue = this.localMap.get(key[0]);
+            Object tempValue = data.get(key.part(0));
             if (tempValue instanceof Map) {
-                //noinspection unchecked
-                this.localMap.put(key[0], this.remove((Map) tempValue, key, 1));
-                if (((Map) this.localMap.get(key[0])).isEmpty()) {
-                    this.localMap.remove(key[0]);
+                Map<String, Object> result = this.remove((Map<String, Object>) tempValue, key, 1);
+                if (result.isEmpty()) {
+                    data.remove(key.part(0));
+                } else {
+                    data.put(key.part(0), result);
                 }
             }
         }
@@ -120,82 +507,148 @@ public class FileData {
 
             Map<String, Object> map,
 
-            String[] key,
+            KeyPath key,
 
             int keyIndex) {
-        if (keyIndex < key.length - 1) {
+        // In concurrent mode published maps are never touched, every map on the path is copied instead
+        Map<String, Object> target = this.concurrent ? createNewMap(map) : map;
+        if (keyIndex < key.size() - 1) {
 
-            Object tempValue = map.get(key[keyIndex]);
+            Object tempValue = map.get(key.part(keyIndex));
             if (tempValue instanceof Map) {
-                //noinspection unchecked
-                map.put(key[keyIndex], this.remove((Map) tempValue, key, keyIndex + 1));
-                if (((Map) map.get(key[keyIndex])).isEmpty()) {
-                    map.remove(key[keyIndex]);
+                Map<String, Object> result = this.remove((Map<String, Object>) tempValue, key, keyIndex + 1);
+                if (result.isEmpty()) {
+                    target.remove(key.part(keyIndex));
+                } else {
+                    target.put(key.part(keyIndex), result);
                 }
             }
         } else {
-            map.remove(key[keyIndex]);
+            target.remove(key.part(keyIndex));
         }
-        return map;
+        return target;
     }
 
     public Set<String> singleLayerKeySet() {
-        return this.localMap.keySet();
+        return this.tree.root.keySet();
     }
 
-    public Set<String> singleLayerKeySet(
-            String key) {
-        return get(key) instanceof Map
-                ? ((Map<String, Object>) get(key)).keySet()
+    public Set<String> singleLayerKeySet(String key) {
+        return singleLayerKeySet(KeyPath.of(key));
+    }
+
+    public Set<String> singleLayerKeySet(KeyPath key) {
+        Object value = get(key);
+        return value instanceof Map
+                ? ((Map<String, Object>) value).keySet()
                 : new ObjectArraySet<>();
     }
 
     public Set<String> keySet() {
-        return multiLayerKeySet(this.localMap);
+        Set<String> out = new ObjectLinkedOpenHashSet<>();
+        forEachLeaf((path, value) -> out.add(path.toString()));
+        return out;
     }
 
     public Set<Map.Entry<String, Object>> entrySet() {
-        return multiLayerEntrySet(this.localMap);
+        Set<Map.Entry<String, Object>> out = new ObjectLinkedOpenHashSet<>();
+        forEachLeaf((path, value) -> out.add(new AbstractMap.SimpleImmutableEntry<>(path.toString(), value)));
+        return out;
     }
 
     public Set<Map.Entry<String, Object>> singleLayerEntrySet() {
-        return this.localMap.entrySet();
+        return this.tree.root.entrySet();
     }
 
     public Set<String> keySet(String key) {
-        return get(key) instanceof Map ? multiLayerKeySet((Map<String, Object>) get(key)) : new ObjectArraySet<>();
+        return keySet(KeyPath.of(key));
     }
 
-    private Set<String> multiLayerKeySet(Map<String, Object> map) {
-        Set<String> out = new ObjectArraySet<>();
-        for (Map.Entry<String, Object> entry : map.entrySet()) {
-            if (entry.getValue() instanceof Map) {
-                for (String tempKey : multiLayerKeySet((Map<String, Object>) entry.getValue())) {
-                    out.add(entry.getKey() + "." + tempKey);
-                }
-            } else {
-                out.add(entry.getKey());
-            }
-        }
+    public Set<String> keySet(KeyPath key) {
+        Set<String> out = new ObjectLinkedOpenHashSet<>();
+        forEachLeaf(key, (path, value) -> out.add(path.toString()));
         return out;
     }
 
-    private Set<Map.Entry<String, Object>> multiLayerEntrySet(Map<String, Object> map) {
-        Set<Map.Entry<String, Object>> out = new ObjectArraySet<>();
-        for (Map.Entry<String, Object> entry : map.entrySet()) {
-            if (map.get(entry.getKey()) instanceof Map) {
-                for (String tempKey : multiLayerKeySet((Map<String, Object>) map.get(entry.getKey()))) {
-                    out.add(new AbstractMap.SimpleEntry<>(entry.getKey() + "." + tempKey, entry.getValue()));
-                }
-            } else {
-                out.add(entry);
+    /**
+     * Visits every leaf with its dotted path. The path is a shared buffer that is only valid during the
+     * callback, call {@code toString()} on it to keep it.
+     */
+    public void forEachLeaf(@NonNull BiConsumer<CharSequence, Object> visitor) {
+        walk(this.tree.root, new StringBuilder(64), visitor, false);
+    }
+
+    /**
+     * Visits every leaf below the given key, with paths relative to it.
+     */
+    public void forEachLeaf(@NonNull KeyPath key, @NonNull BiConsumer<CharSequence, Object> visitor) {
+        Object value = get(key);
+        if (value instanceof Map) {
+            walk((Map<String, Object>) value, new StringBuilder(64), visitor, false);
+        }
+    }
+
+    /**
+     * Visits every section (nested map) with its dotted path, parents before their children.
+     */
+    public void forEachNode(@NonNull BiConsumer<CharSequence, Map<String, Object>> visitor) {
+        walk(this.tree.root, new StringBuilder(64), (BiConsumer) visitor, true);
+    }
+
+    public void forEachNode(@NonNull KeyPath key, @NonNull BiConsumer<CharSequence, Map<String, Object>> visitor) {
+        Object value = get(key);
+        if (value instanceof Map) {
+            walk((Map<String, Object>) value, new StringBuilder(64), (BiConsumer) visitor, true);
+        }
+    }
+
+    /**
+     * Lazily iterates all leaves. Only the path of each section is built while iterating, the full key of a
+     * leaf is created when {@link Map.Entry#getKey()} is called.
+     */
+    public Iterator<Map.Entry<String, Object>> leafIterator() {
+        return new LeafIterator(this.tree.root);
+    }
+
+    public Iterator<Map.Entry<String, Object>> leafIterator(@NonNull KeyPath key) {
+        Object value = get(key);
+        return new LeafIterator(value instanceof Map ? (Map<String, Object>) value : Collections.emptyMap());
+    }
+
+    public Stream<Map.Entry<String, Object>> leafStream() {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(leafIterator(), Spliterator.ORDERED), false);
+    }
+
+    public Stream<Map.Entry<String, Object>> leafStream(@NonNull KeyPath key) {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(leafIterator(key), Spliterator.ORDERED), false);
+    }
+
+    private static void walk(Map<String, Object> map, StringBuilder path, BiConsumer<CharSequence, Object> visitor, boolean nodes) {
+        int length = path.length();
+        for (Map.Entry<String, Object> entry : entries(map)) {
+            if (length > 0) path.append('.');
+            path.append(entry.getKey());
+            Object value = entry.getValue();
+            if (value instanceof Map) {
+                if (nodes) visitor.accept(path, value);
+                walk((Map<String, Object>) value, path, visitor, nodes);
+            } else if (!nodes) {
+                visitor.accept(path, value);
             }
+            path.setLength(length);
         }
-        return out;
+    }
+
+    // fastutil maps can be iterated without creating an entry object per element
+    private static Iterable<? extends Map.Entry<String, Object>> entries(Map<String, Object> map) {
+        if (map instanceof Object2ObjectMap) {
+            return Object2ObjectMaps.fastIterable((Object2ObjectMap<String, Object>) map);
+        }
+        return map.entrySet();
     }
 
     public int singleLayerSize() {
-        return this.localMap.size();
+        return this.tree.root.size();
     }
 
     public int singleLayerSize(String key) {
@@ -203,15 +656,39 @@ public class FileData {
     }
 
     public int size() {
-        return this.localMap.size();
+        return this.tree.root.size();
     }
 
     public int size(String key) {
-        return this.localMap.size();
+        return this.tree.root.size();
     }
 
-    public void putAll(Map<String, Object> map) {
-        this.localMap.putAll(map);
+    public synchronized void putAll(Map<String, Object> map) {
+        Tree tree = writable();
+        Map<String, Object> index = tree.index;
+        if (index != null) {
+            for (String key : map.keySet()) {
+                if (key.indexOf('.') < 0) unindexValue(index, key, tree.root.get(key));
+            }
+        }
+        tree.root.putAll(map);
+        if (index != null) {
+            for (Map.Entry<String, Object> entry : map.entrySet()) {
+                if (entry.getKey().indexOf('.') < 0) indexValue(index, entry.getKey(), entry.getValue());
+            }
+        }
+        publish(tree);
+    }
+
+    /**
+     * Puts the entries into the section at the key, creating it if needed. Like {@link #putAll(Map)} the keys
+     * are taken literally and not split at dots.
+     */
+    public synchronized void putAll(@NonNull KeyPath section, @NonNull Map<String, Object> map) {
+        Object current = get(current(), section);
+        Map<String, Object> merged = current instanceof Map ? createNewMap((Map<String, Object>) current) : createNewMap();
+        merged.putAll(map);
+        insert(section, merged);
     }
 
     private int size(Map<String, Object> map) {
@@ -225,11 +702,12 @@ public class FileData {
     }
 
     public Map<String, Object> toMap() {
-        return Objects.requireNonNullElseGet(this.localMap, Object2ObjectLinkedOpenHashMap::new);
+        Map<String, Object> data = Objects.requireNonNullElseGet(this.tree.root, Object2ObjectLinkedOpenHashMap::new);
+        return this.concurrent ? Collections.unmodifiableMap(data) : data;
     }
 
     public JSONObject toJsonObject() {
-        return JsonUtils.getJsonFromMap(this.localMap);
+        return JsonUtils.getJsonFromMap(this.tree.root);
     }
 
     public Map<String, Object> createNewMap() {
@@ -242,12 +720,12 @@ public class FileData {
 
     @Override
     public int hashCode() {
-        return this.localMap.hashCode();
+        return this.tree.root.hashCode();
     }
 
     @Override
     public String toString() {
-        return this.localMap.toString();
+        return this.tree.root.toString();
     }
 
     @Override
@@ -258,7 +736,137 @@ public class FileData {
             return false;
         } else {
             FileData fileData = (FileData) obj;
-            return this.localMap.equals(fileData.localMap);
+            return this.tree.root.equals(fileData.tree.root);
+        }
+    }
+
+    /**
+     * The root together with its index, replaced as a whole so lock-free readers always see both in the same state.
+     */
+    private static final class Tree {
+        private final Object2ObjectLinkedOpenHashMap<String, Object> root;
+        // Optional flat index from every dotted path to its leaf value or subtree, null when disabled
+        private final Object2ObjectOpenHashMap<String, Object> index;
+
+        private Tree(Object2ObjectLinkedOpenHashMap<String, Object> root, Object2ObjectOpenHashMap<String, Object> index) {
+            this.root = root;
+            this.index = index;
+        }
+    }
+
+    private static final class Changes {
+        private final ObjectArrayList<String> paths = new ObjectArrayList<>();
+        private final boolean indexed;
+        // Only filled while indexed, the index is updated from these once the merged tree is published
+        private final ObjectArrayList<String> changed = new ObjectArrayList<>();
+        private final ObjectArrayList<Object> previous = new ObjectArrayList<>();
+        private final ObjectArrayList<Object> current = new ObjectArrayList<>();
+        private final ObjectArrayList<String> nodePaths = new ObjectArrayList<>();
+        private final ObjectArrayList<Object> nodes = new ObjectArrayList<>();
+
+        private Changes(boolean indexed) {
+            this.indexed = indexed;
+        }
+
+        private void add(CharSequence path, Object previous, Object current, boolean indexable) {
+            String key = path.toString();
+            this.paths.add(key);
+            if (!this.indexed || !indexable) return;
+            this.changed.add(key);
+            this.previous.add(previous);
+            this.current.add(current);
+        }
+
+        private void node(CharSequence path, Map<String, Object> node) {
+            this.nodePaths.add(path.toString());
+            this.nodes.add(node);
+        }
+    }
+
+    private static final class LeafIterator implements Iterator<Map.Entry<String, Object>> {
+        private final ObjectArrayList<Iterator<? extends Map.Entry<String, Object>>> iterators = new ObjectArrayList<>();
+        private final ObjectArrayList<String> paths = new ObjectArrayList<>();
+        private LeafEntry next;
+
+        private LeafIterator(Map<String, Object> root) {
+            this.iterators.push(entries(root).iterator());
+            this.paths.push(null);
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (this.next == null && !this.iterators.isEmpty()) {
+                Iterator<? extends Map.Entry<String, Object>> iterator = this.iterators.top();
+                if (!iterator.hasNext()) {
+                    this.iterators.pop();
+                    this.paths.pop();
+                    continue;
+                }
+                Map.Entry<String, Object> entry = iterator.next();
+                String parent = this.paths.top();
+                Object value = entry.getValue();
+                if (value instanceof Map) {
+                    this.iterators.push(entries((Map<String, Object>) value).iterator());
+                    this.paths.push(parent == null ? entry.getKey() : parent + "." + entry.getKey());
+                } else {
+                    this.next = new LeafEntry(parent, entry.getKey(), value);
+                }
+            }
+            return this.next != null;
+        }
+
+        @Override
+        public Map.Entry<String, Object> next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            LeafEntry entry = this.next;
+            this.next = null;
+            return entry;
+        }
+    }
+
+    private static final class LeafEntry implements Map.Entry<String, Object> {
+        private final String parent;
+        private final String name;
+        private final Object value;
+        private String key;
+
+        private LeafEntry(String parent, String name, Object value) {
+            this.parent = parent;
+            this.name = name;
+            this.value = value;
+        }
+
+        @Override
+        public String getKey() {
+            if (this.key == null) this.key = this.parent == null ? this.name : this.parent + "." + this.name;
+            return this.key;
+        }
+
+        @Override
+        public Object getValue() {
+            return this.value;
+        }
+
+        @Override
+        public Object setValue(Object value) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Map.Entry)) return false;
+            Map.Entry<?, ?> entry = (Map.Entry<?, ?>) obj;
+            return getKey().equals(entry.getKey()) && Objects.equals(this.value, entry.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return getKey().hashCode() ^ Objects.hashCode(this.value);
+        }
+
+        @Override
+        public String toString() {
+            return getKey() + "=" + this.value;
         }
     }
 }
@@ -0,0 +1,167 @@
+package com.uroria.fastconfig.internal;
+
+import com.uroria.fastconfig.KeyPath;
+import com.uroria.fastconfig.Transaction;
+import it.unimi.dsi.fastutil.objects.Object2ObjectLinkedOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import it.unimi.dsi.fastutil.objects.ObjectList;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * The {@link Transaction} of {@link AbstractConfigFile#batch}, applied to the file data once the action returned.
+ */
+final class FileTransaction implements Transaction {
+    private final ObjectList<Operation> operations;
+    private final KeyPath pathPrefix;
+
+    FileTransaction(KeyPath pathPrefix) {
+        this(new ObjectArrayList<>(), pathPrefix);
+    }
+
+    private FileTransaction(ObjectList<Operation> operations, KeyPath pathPrefix) {
+        this.operations = operations;
+        this.pathPrefix = pathPrefix;
+    }
+
+    @Override
+    public Transaction set(@NonNull String key, Object value) {
+        return set(KeyPath.of(key), value);
+    }
+
+    @Override
+    public Transaction set(@NonNull KeyPath key, Object value) {
+        this.operations.add(new Operation(OperationType.SET, createFinalKey(key), value));
+        return this;
+    }
+
+    @Override
+    public Transaction remove(@NonNull String key) {
+        return remove(KeyPath.of(key));
+    }
+
+    @Override
+    public Transaction remove(@NonNull KeyPath key) {
+        this.operations.add(new Operation(OperationType.REMOVE, createFinalKey(key), null));
+        return this;
+    }
+
+    @Override
+    public Transaction putAll(@NonNull Map<String, Object> map) {
+        this.operations.add(new Operation(OperationType.PUT_ALL, this.pathPrefix, new Object2ObjectLinkedOpenHashMap<>(map)));
+        return this;
+    }
+
+    @Override
+    public Transaction clear() {
+        if (this.pathPrefix == null) {
+            this.operations.add(new Operation(OperationType.CLEAR, null, null));
+        } else {
+            this.operations.add(new Operation(OperationType.REMOVE, this.pathPrefix, null));
+        }
+        return this;
+    }
+
+    @Override
+    public Transaction section(@NonNull String pathPrefix) {
+        return section(KeyPath.of(pathPrefix));
+    }
+
+    @Override
+    public Transaction section(@NonNull KeyPath pathPrefix) {
+        return new FileTransaction(this.operations, createFinalKey(pathPrefix));
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return this.operations.isEmpty();
+    }
+
+    /**
+     * Applies all operations as one {@link FileData#batch(Runnable) batch} and adds the paths they touched to
+     * {@code changed}, if it is not null.
+     */
+    void apply(FileData data, Collection<String> changed) {
+        data.batch(() -> {
+            for (Operation operation : this.operations) {
+                apply(data, operation, changed);
+            }
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void apply(FileData data, Operation operation, Collection<String> changed) {
+        switch (operation.type) {
+            case SET:
+                data.insert(operation.key, operation.value);
+                if (changed != null) changed.add(operation.key.toString());
+                break;
+            case REMOVE:
+                data.remove(operation.key);
+                if (changed != null) changed.add(operation.key.toString());
+                break;
+            case PUT_ALL:
+                Map<String, Object> map = (Map<String, Object>) operation.value;
+                if (operation.key == null) data.putAll(map);
+                else data.putAll(operation.key, map);
+                if (changed != null) {
+                    for (String key : map.keySet()) {
+                        changed.add(operation.key == null ? key : operation.key + "." + key);
+                    }
+                }
+                break;
+            case CLEAR:
+                if (changed != null) changed.addAll(data.currentKeySet());
+                data.clear();
+                break;
+        }
+    }
+
+    /**
+     * Adds the paths the operations change to {@code paths}.
+     *
+     * @return false if an operation changes paths that can't be named, a clear or a literal key with a dot
+     */
+    boolean collectPaths(Collection<KeyPath> paths) {
+        for (Operation operation : this.operations) {
+            switch (operation.type) {
+                case SET:
+                case REMOVE:
+                    paths.add(operation.key);
+                    break;
+                case PUT_ALL:
+                    if (operation.key != null) {
+                        paths.add(operation.key);
+                        break;
+                    }
+                    for (Object key : ((Map<?, ?>) operation.value).keySet()) {
+                        String name = (String) key;
+                        if (name.indexOf('.') >= 0) return false;
+                        paths.add(KeyPath.of(name));
+                    }
+                    break;
+                case CLEAR:
+                    return false;
+            }
+        }
+        return true;
+    }
+
+    private KeyPath createFinalKey(KeyPath key) {
+        return this.pathPrefix == null ? key : this.pathPrefix.resolve(key);
+    }
+
+    private enum OperationType {
+        SET, REMOVE, PUT_ALL, CLEAR
+    }
+
+    @RequiredArgsConstructor
+    private static final class Operation {
+        private final OperationType type;
+        private final KeyPath key;
+        private final Object value;
+    }
+}
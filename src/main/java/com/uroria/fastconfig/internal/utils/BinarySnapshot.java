@@ -0,0 +1,359 @@
+package com.uroria.fastconfig.internal.utils;
+
+import it.unimi.dsi.fastutil.doubles.DoubleArrayList;
+import it.unimi.dsi.fastutil.doubles.DoubleList;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntList;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongList;
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Object2ObjectLinkedOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import lombok.NonNull;
+import lombok.experimental.UtilityClass;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact binary copy of a parsed tree, stored next to the source file and only valid for the exact source
+ * state it was created from.
+ * <p>
+ * Layout: magic, version, source size, modification time and CRC32C, then a table of all map keys and the
+ * tree as type tagged values. Counts, lengths and key references are variable length integers.
+ */
+@UtilityClass
+@SuppressWarnings("unchecked")
+public class BinarySnapshot {
+    private final int MAGIC = 0x46435342;
+    private final byte VERSION = 1;
+
+    private final byte NULL = 0;
+    private final byte TRUE = 1;
+    private final byte FALSE = 2;
+    private final byte INT = 3;
+    private final byte LONG = 4;
+    private final byte DOUBLE = 5;
+    private final byte STRING = 6;
+    private final byte MAP = 7;
+    private final byte LIST = 8;
+    private final byte INT_LIST = 9;
+    private final byte LONG_LIST = 10;
+    private final byte DOUBLE_LIST = 11;
+    private final byte BIG_INTEGER = 12;
+
+    public File fileFor(@NonNull File source) {
+        return new File(source.getParentFile(), source.getName() + ".snapshot");
+    }
+
+    /**
+     * Returns the stored tree if the snapshot exists and was made from the given source state, null otherwise.
+     */
+    @Nullable
+    public Object2ObjectLinkedOpenHashMap<String, Object> read(@NonNull File snapshot, @NonNull FileFingerprint source) {
+        byte[] bytes;
+        try {
+            bytes = Files.readAllBytes(snapshot.toPath());
+        } catch (IOException exception) {
+            return null;
+        }
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            if (buffer.getInt() != MAGIC || buffer.get() != VERSION || buffer.getLong() != source.getSize()
+                    || buffer.getLong() != source.getLastModified() || buffer.getLong() != source.getChecksum()) {
+                return null;
+            }
+            String[] keys = new String[readVarInt(buffer)];
+            for (int i = 0; i < keys.length; i++) {
+                keys[i] = StringPool.intern(readString(buffer));
+            }
+            if (buffer.get() != MAP) return null;
+            Object2ObjectLinkedOpenHashMap<String, Object> map = readMap(buffer, keys);
+            return buffer.hasRemaining() ? null : map;
+        } catch (RuntimeException exception) {
+            // A truncated or foreign file is just a cache miss
+            return null;
+        }
+    }
+
+    /**
+     * Encodes the tree, or returns null if it holds values this format cannot represent. Encoding is kept
+     * separate from {@link #write(File, byte[])} so it can happen before the tree is handed out.
+     */
+    @Nullable
+    public byte[] encode(@NonNull FileFingerprint source, @NonNull Map<String, Object> map) {
+        Output body = new Output(4096);
+        Object2IntOpenHashMap<String> keys = new Object2IntOpenHashMap<>();
+        keys.defaultReturnValue(-1);
+        if (!writeValue(body, keys, map)) return null;
+
+        String[] table = new String[keys.size()];
+        for (Object2IntMap.Entry<String> entry : keys.object2IntEntrySet()) {
+            table[entry.getIntValue()] = entry.getKey();
+        }
+        Output output = new Output(body.size + 64 + table.length * 16);
+        output.writeInt(MAGIC);
+        output.writeByte(VERSION);
+        output.writeLong(source.getSize());
+        output.writeLong(source.getLastModified());
+        output.writeLong(source.getChecksum());
+        output.writeVarInt(table.length);
+        for (String key : table) {
+            output.writeString(key);
+        }
+        output.writeBytes(body.bytes, body.size);
+        return Arrays.copyOf(output.bytes, output.size);
+    }
+
+    /**
+     * Replaces the snapshot through a temporary file, so readers never see a partial one. Failures are
+     * ignored since the snapshot is only a cache.
+     */
+    public void write(@NonNull File snapshot, @NonNull byte[] bytes) {
+        Path target = snapshot.toPath();
+        Path temporary = target.resolveSibling(snapshot.getName() + ".tmp");
+        try {
+            Files.write(temporary, bytes);
+            try {
+                Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException exception) {
+                Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException exception) {
+            try {
+                Files.deleteIfExists(temporary);
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    private boolean writeValue(Output output, Object2IntOpenHashMap<String> keys, Object value) {
+        if (value == null) {
+            output.writeByte(NULL);
+        } else if (value instanceof Boolean) {
+            output.writeByte((Boolean) value ? TRUE : FALSE);
+        } else if (value instanceof Integer) {
+            output.writeByte(INT);
+            output.writeInt((Integer) value);
+        } else if (value instanceof Long) {
+            output.writeByte(LONG);
+            output.writeLong((Long) value);
+        } else if (value instanceof Double) {
+            output.writeByte(DOUBLE);
+            output.writeLong(Double.doubleToRawLongBits((Double) value));
+        } else if (value instanceof String) {
+            if (!isWellFormed((String) value)) return false;
+            output.writeByte(STRING);
+            output.writeString((String) value);
+        } else if (value instanceof BigInteger) {
+            output.writeByte(BIG_INTEGER);
+            output.writeString(value.toString());
+        } else if (value instanceof Map) {
+            Map<String, Object> map = (Map<String, Object>) value;
+            output.writeByte(MAP);
+            output.writeVarInt(map.size());
+            for (Map.Entry<String, Object> entry : map.entrySet()) {
+                int key = keys.getInt(entry.getKey());
+                if (key < 0) {
+                    if (!isWellFormed(entry.getKey())) return false;
+                    key = keys.size();
+                    keys.put(entry.getKey(), key);
+                }
+                output.writeVarInt(key);
+                if (!writeValue(output, keys, entry.getValue())) return false;
+            }
+        } else if (value instanceof IntList) {
+            IntList list = (IntList) value;
+            output.writeByte(INT_LIST);
+            output.writeVarInt(list.size());
+            for (int i = 0; i < list.size(); i++) {
+                output.writeInt(list.getInt(i));
+            }
+        } else if (value instanceof LongList) {
+            LongList list = (LongList) value;
+            output.writeByte(LONG_LIST);
+            output.writeVarInt(list.size());
+            for (int i = 0; i < list.size(); i++) {
+                output.writeLong(list.getLong(i));
+            }
+        } else if (value instanceof DoubleList) {
+            DoubleList list = (DoubleList) value;
+            output.writeByte(DOUBLE_LIST);
+            output.writeVarInt(list.size());
+            for (int i = 0; i < list.size(); i++) {
+                output.writeLong(Double.doubleToRawLongBits(list.getDouble(i)));
+            }
+        } else if (value instanceof List) {
+            List<Object> list = (List<Object>) value;
+            output.writeByte(LIST);
+            output.writeVarInt(list.size());
+            for (Object element : list) {
+                if (!writeValue(output, keys, element)) return false;
+            }
+        } else {
+            return false;
+        }
+        return true;
+    }
+
+    private Object readValue(ByteBuffer buffer, String[] keys) {
+        byte tag = buffer.get();
+        switch (tag) {
+            case NULL:
+                return null;
+            case TRUE:
+                return Boolean.TRUE;
+            case FALSE:
+                return Boolean.FALSE;
+            case INT:
+                return buffer.getInt();
+            case LONG:
+                return buffer.getLong();
+            case DOUBLE:
+                return Double.longBitsToDouble(buffer.getLong());
+            case STRING:
+                return StringPool.internValue(readString(buffer));
+            case BIG_INTEGER:
+                return new BigInteger(readString(buffer));
+            case MAP:
+                return readMap(buffer, keys);
+            case LIST:
+                int size = readVarInt(buffer);
+                ObjectArrayList<Object> list = new ObjectArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    list.add(readValue(buffer, keys));
+                }
+                return list;
+            case INT_LIST:
+                int[] ints = new int[readVarInt(buffer)];
+                for (int i = 0; i < ints.length; i++) {
+                    ints[i] = buffer.getInt();
+                }
+                return IntArrayList.wrap(ints);
+            case LONG_LIST:
+                long[] longs = new long[readVarInt(buffer)];
+                for (int i = 0; i < longs.length; i++) {
+                    longs[i] = buffer.getLong();
+                }
+                return LongArrayList.wrap(longs);
+            case DOUBLE_LIST:
+                double[] doubles = new double[readVarInt(buffer)];
+                for (int i = 0; i < doubles.length; i++) {
+                    doubles[i] = Double.longBitsToDouble(buffer.getLong());
+                }
+                return DoubleArrayList.wrap(doubles);
+            default:
+                throw new IllegalStateException("Unknown snapshot tag " + tag);
+        }
+    }
+
+    // UTF-8 can't encode lone surrogates, they would come back as '?' and the snapshot would differ from the source
+    private boolean isWellFormed(String value) {
+        for (int i = 0, length = value.length(); i < length; i++) {
+            char c = value.charAt(i);
+            if (!Character.isSurrogate(c)) continue;
+            if (!Character.isHighSurrogate(c) || i + 1 == length || !Character.isLowSurrogate(value.charAt(i + 1))) {
+                return false;
+            }
+            i++;
+        }
+        return true;
+    }
+
+    private Object2ObjectLinkedOpenHashMap<String, Object> readMap(ByteBuffer buffer, String[] keys) {
+        int size = readVarInt(buffer);
+        Object2ObjectLinkedOpenHashMap<String, Object> map = new Object2ObjectLinkedOpenHashMap<>(size);
+        for (int i = 0; i < size; i++) {
+            String key = keys[readVarInt(buffer)];
+            map.put(key, readValue(buffer, keys));
+        }
+        return map;
+    }
+
+    private String readString(ByteBuffer buffer) {
+        int length = readVarInt(buffer);
+        String string = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return string;
+    }
+
+    private int readVarInt(ByteBuffer buffer) {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                if (value < 0) throw new IllegalStateException("Negative length in snapshot");
+                return value;
+            }
+        }
+        throw new IllegalStateException("Malformed length in snapshot");
+    }
+
+    private static final class Output {
+        private byte[] bytes;
+        private int size;
+
+        private Output(int capacity) {
+            this.bytes = new byte[capacity];
+        }
+
+        private void writeByte(int value) {
+            ensure(1);
+            this.bytes[this.size++] = (byte) value;
+        }
+
+        private void writeInt(int value) {
+            ensure(4);
+            for (int shift = 24; shift >= 0; shift -= 8) {
+                this.bytes[this.size++] = (byte) (value >>> shift);
+            }
+        }
+
+        private void writeLong(long value) {
+            ensure(8);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                this.bytes[this.size++] = (byte) (value >>> shift);
+            }
+        }
+
+        private void writeVarInt(int value) {
+            ensure(5);
+            while ((value & ~0x7F) != 0) {
+                this.bytes[this.size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            this.bytes[this.size++] = (byte) value;
+        }
+
+        private void writeString(String value) {
+            byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+            writeVarInt(encoded.length);
+            writeBytes(encoded, encoded.length);
+        }
+
+        private void writeBytes(byte[] source, int length) {
+            ensure(length);
+            System.arraycopy(source, 0, this.bytes, this.size, length);
+            this.size += length;
+        }
+
+        private void ensure(int length) {
+            if (this.bytes.length - this.size < length) {
+                this.bytes = Arrays.copyOf(this.bytes, Math.max(this.bytes.length * 2, this.size + length));
+            }
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.uroria.fastconfig.internal.utils;
+
+import lombok.NonNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+/**
+ * Buffered UTF-8 output into a file channel, shared by the streaming writers. Instances are reused per
+ * thread, so a write allocates nothing but the channel.
+ */
+abstract class ChannelWriter {
+    static final int BUFFER_SIZE = 64 * 1024;
+    private static final byte[] HEX = "0123456789abcdef".getBytes();
+
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private final ByteBuffer byteBuffer = ByteBuffer.wrap(this.buffer);
+    private final CRC32C checksum = new CRC32C();
+    private FileChannel channel;
+    private Path target;
+    private Path temporary;
+    private int position;
+
+    /**
+     * Opens the file for writing. With {@code replace} the content goes to a temporary file that is moved over
+     * the target on success, so readers see either the old or the new content.
+     */
+    final void open(@NonNull File file, boolean replace) throws IOException {
+        this.target = file.toPath();
+        this.temporary = replace ? this.target.resolveSibling(file.getName() + ".tmp") : null;
+        this.channel = FileChannel.open(replace ? this.temporary : this.target, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        this.position = 0;
+        this.checksum.reset();
+    }
+
+    /**
+     * Flushes the buffer if the write succeeded and always closes the channel.
+     *
+     * @return the CRC32C of everything written
+     */
+    final long close(boolean success) throws IOException {
+        Path temporary = this.temporary;
+        try {
+            try (FileChannel ignored = this.channel) {
+                if (success) flush();
+            }
+            if (temporary != null && success) {
+                try {
+                    Files.move(temporary, this.target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                } catch (AtomicMoveNotSupportedException exception) {
+                    Files.move(temporary, this.target, StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+            return this.checksum.getValue();
+        } finally {
+            this.channel = null;
+            this.target = null;
+            this.temporary = null;
+            this.position = 0;
+            if (temporary != null) Files.deleteIfExists(temporary);
+        }
+    }
+
+    final void writeCodePoint(int codePoint) throws IOException {
+        if (codePoint < 0x80) {
+            writeByte(codePoint);
+        } else if (codePoint < 0x800) {
+            ensure(2);
+            this.buffer[this.position++] = (byte) (0xC0 | (codePoint >> 6));
+            this.buffer[this.position++] = (byte) (0x80 | (codePoint & 0x3F));
+        } else if (codePoint < 0x10000) {
+            ensure(3);
+            this.buffer[this.position++] = (byte) (0xE0 | (codePoint >> 12));
+            this.buffer[this.position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+            this.buffer[this.position++] = (byte) (0x80 | (codePoint & 0x3F));
+        } else {
+            ensure(4);
+            this.buffer[this.position++] = (byte) (0xF0 | (codePoint >> 18));
+            this.buffer[this.position++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+            this.buffer[this.position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+            this.buffer[this.position++] = (byte) (0x80 | (codePoint & 0x3F));
+        }
+    }
+
+    final void writeUnicodeEscape(char c) throws IOException {
+        ensure(6);
+        this.buffer[this.position++] = '\\';
+        this.buffer[this.position++] = 'u';
+        this.buffer[this.position++] = HEX[(c >> 12) & 0xF];
+        this.buffer[this.position++] = HEX[(c >> 8) & 0xF];
+        this.buffer[this.position++] = HEX[(c >> 4) & 0xF];
+        this.buffer[this.position++] = HEX[c & 0xF];
+    }
+
+    final void writeLong(long value) throws IOException {
+        if (value == Long.MIN_VALUE) {
+            writeAscii("-9223372036854775808");
+            return;
+        }
+        ensure(20);
+        if (value < 0) {
+            this.buffer[this.position++] = '-';
+            value = -value;
+        }
+        int digits = 1;
+        for (long remaining = value / 10; remaining != 0; remaining /= 10) {
+            digits++;
+        }
+        int end = this.position + digits;
+        for (int i = end - 1; i >= this.position; i--) {
+            this.buffer[i] = (byte) ('0' + (value % 10));
+            value /= 10;
+        }
+        this.position = end;
+    }
+
+    final void writeAscii(String string) throws IOException {
+        int length = string.length();
+        if (length > BUFFER_SIZE) {
+            for (int i = 0; i < length; i++) {
+                writeByte(string.charAt(i));
+            }
+            return;
+        }
+        ensure(length);
+        for (int i = 0; i < length; i++) {
+            this.buffer[this.position++] = (byte) string.charAt(i);
+        }
+    }
+
+    final void writeBytes(ByteBuffer bytes) throws IOException {
+        while (bytes.hasRemaining()) {
+            if (this.position == BUFFER_SIZE) flush();
+            int length = Math.min(bytes.remaining(), BUFFER_SIZE - this.position);
+            bytes.get(this.buffer, this.position, length);
+            this.position += length;
+        }
+    }
+
+    final void writeByte(int b) throws IOException {
+        if (this.position == BUFFER_SIZE) flush();
+        this.buffer[this.position++] = (byte) b;
+    }
+
+    private void ensure(int bytes) throws IOException {
+        if (BUFFER_SIZE - this.position < bytes) flush();
+    }
+
+    private void flush() throws IOException {
+        this.checksum.update(this.buffer, 0, this.position);
+        this.byteBuffer.clear().limit(this.position);
+        while (this.byteBuffer.hasRemaining()) {
+            this.channel.write(this.byteBuffer);
+        }
+        this.position = 0;
+    }
+}
@@ -3,6 +3,13 @@ package com.uroria.fastconfig.internal.utils;
 import java.nio.charset.StandardCharsets;
 import java.util.Collection;
 import java.util.List;
+
+import it.unimi.dsi.fastutil.doubles.DoubleArrayList;
+import it.unimi.dsi.fastutil.doubles.DoubleList;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntList;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongList;
 import lombok.experimental.UtilityClass;
 
 @SuppressWarnings("unchecked")
@@ -19,19 +26,37 @@ public class ClassWrapper {
         } else if (def instanceof Long) {
             return (T) LONG.getLong(obj);
         } else if (def instanceof Boolean) {
-            return (T) (Boolean) obj.toString().equalsIgnoreCase("true");
+            return (T) (Boolean) BOOLEAN.asBoolean(obj);
         } else if (def instanceof String[]) {
             return (T) STRING.getStringArray(obj);
-        } else if (def instanceof Long[] || def instanceof long[]) {
+        } else if (def instanceof int[]) {
+            return (T) INTEGER.toIntArray(obj);
+        } else if (def instanceof long[]) {
+            return (T) LONG.toLongArray(obj);
+        } else if (def instanceof double[]) {
+            return (T) DOUBLE.toDoubleArray(obj);
+        } else if (def instanceof float[]) {
+            return (T) FLOAT.toFloatArray(obj);
+        } else if (def instanceof short[]) {
+            return (T) SHORT.toShortArray(obj);
+        } else if (def instanceof byte[]) {
+            return (T) BYTE.toByteArray(obj);
+        } else if (def instanceof Long[]) {
             return (T) LONG.getLongArray(obj);
-        } else if (def instanceof Double[] || def instanceof double[]) {
+        } else if (def instanceof Double[]) {
             return (T) DOUBLE.getDoubleArray(obj);
-        } else if (def instanceof Float[] || def instanceof float[]) {
+        } else if (def instanceof Float[]) {
             return (T) FLOAT.getFloatArray(obj);
-        } else if (def instanceof Short[] || def instanceof short[]) {
+        } else if (def instanceof Short[]) {
             return (T) SHORT.getShortArray(obj);
-        } else if (def instanceof Byte[] || def instanceof byte[]) {
+        } else if (def instanceof Byte[]) {
             return (T) BYTE.getByteArray(obj);
+        } else if (def instanceof IntList) {
+            return (T) INTEGER.getIntList(obj);
+        } else if (def instanceof LongList) {
+            return (T) LONG.getLongList(obj);
+        } else if (def instanceof DoubleList) {
+            return (T) DOUBLE.getDoubleList(obj);
         }
         return (T) obj;
     }
@@ -47,19 +72,39 @@ public class ClassWrapper {
         } else if (clazz == long.class || clazz == Long.class) {
             return (T) LONG.getLong(obj);
         } else if (clazz == boolean.class || clazz == Boolean.class) {
-            return (T) (Boolean) obj.toString().equalsIgnoreCase("true");
+            return (T) (Boolean) BOOLEAN.asBoolean(obj);
         } else if (clazz == String[].class) {
             return (T) STRING.getStringArray(obj);
-        } else if (clazz == Double[].class || clazz == double[].class) {
+        } else if (clazz == int[].class) {
+            return (T) INTEGER.toIntArray(obj);
+        } else if (clazz == long[].class) {
+            return (T) LONG.toLongArray(obj);
+        } else if (clazz == double[].class) {
+            return (T) DOUBLE.toDoubleArray(obj);
+        } else if (clazz == float[].class) {
+            return (T) FLOAT.toFloatArray(obj);
+        } else if (clazz == short[].class) {
+            return (T) SHORT.toShortArray(obj);
+        } else if (clazz == byte[].class) {
+            return (T) BYTE.toByteArray(obj);
+        } else if (clazz == Long[].class) {
+            return (T) LONG.getLongArray(obj);
+        } else if (clazz == Double[].class) {
             return (T) DOUBLE.getDoubleArray(obj);
-        } else if (clazz == Float[].class || clazz == float[].class) {
+        } else if (clazz == Float[].class) {
             return (T) FLOAT.getFloatArray(obj);
-        } else if (clazz == Integer[].class || clazz == int[].class) {
+        } else if (clazz == Integer[].class) {
             return (T) INTEGER.getIntArray(obj);
-        } else if (clazz == Short[].class || clazz == short[].class) {
+        } else if (clazz == Short[].class) {
             return (T) SHORT.getShortArray(obj);
-        } else if (clazz == Byte[].class || clazz == byte[].class) {
+        } else if (clazz == Byte[].class) {
             return (T) BYTE.getByteArray(obj);
+        } else if (clazz == IntList.class) {
+            return (T) INTEGER.getIntList(obj);
+        } else if (clazz == LongList.class) {
+            return (T) LONG.getLongList(obj);
+        } else if (clazz == DoubleList.class) {
+            return (T) DOUBLE.getDoubleList(obj);
         }
         return (T) obj;
     }
@@ -76,7 +121,42 @@ public class ClassWrapper {
             return new Long[0];
         }
 
+        public long[] toLongArray(final Object obj) {
+            if (obj instanceof LongList) {
+                return ((LongList) obj).toLongArray();
+            } else if (obj instanceof List) {
+                List<?> list = (List<?>) obj;
+                long[] array = new long[list.size()];
+                for (int i = 0; i < array.length; i++) {
+                    array[i] = asLong(list.get(i));
+                }
+                return array;
+            }
+
+            return new long[0];
+        }
+
+        /**
+         * Returns the stored list itself if it already holds primitive longs, otherwise a converted copy.
+         */
+        public LongList getLongList(final Object obj) {
+            if (obj instanceof LongList) {
+                return (LongList) obj;
+            }
+            LongArrayList list = new LongArrayList();
+            if (obj instanceof List) {
+                for (Object element : (List<?>) obj) {
+                    list.add(asLong(element));
+                }
+            }
+            return list;
+        }
+
         public Long getLong(final Object obj) {
+            return asLong(obj);
+        }
+
+        public long asLong(final Object obj) {
             if (obj instanceof Number) {
                 return ((Number) obj).longValue();
             } else if (obj instanceof String) {
@@ -99,7 +179,42 @@ public class ClassWrapper {
             return new Double[0];
         }
 
+        public double[] toDoubleArray(final Object obj) {
+            if (obj instanceof DoubleList) {
+                return ((DoubleList) obj).toDoubleArray();
+            } else if (obj instanceof List) {
+                List<?> list = (List<?>) obj;
+                double[] array = new double[list.size()];
+                for (int i = 0; i < array.length; i++) {
+                    array[i] = asDouble(list.get(i));
+                }
+                return array;
+            }
+
+            return new double[0];
+        }
+
+        /**
+         * Returns the stored list itself if it already holds primitive doubles, otherwise a converted copy.
+         */
+        public DoubleList getDoubleList(final Object obj) {
+            if (obj instanceof DoubleList) {
+                return (DoubleList) obj;
+            }
+            DoubleArrayList list = new DoubleArrayList();
+            if (obj instanceof List) {
+                for (Object element : (List<?>) obj) {
+                    list.add(asDouble(element));
+                }
+            }
+            return list;
+        }
+
         public Double getDouble(final Object obj) {
+            return asDouble(obj);
+        }
+
+        public double asDouble(final Object obj) {
             if (obj instanceof Number) {
                 return ((Number) obj).doubleValue();
             } else if (obj instanceof String) {
@@ -122,7 +237,24 @@ public class ClassWrapper {
             return new Float[0];
         }
 
+        public float[] toFloatArray(final Object obj) {
+            if (obj instanceof List) {
+                List<?> list = (List<?>) obj;
+                float[] array = new float[list.size()];
+                for (int i = 0; i < array.length; i++) {
+                    array[i] = asFloat(list.get(i));
+                }
+                return array;
+            }
+
+            return new float[0];
+        }
+
         public Float getFloat(final Object obj) {
+            return asFloat(obj);
+        }
+
+        public float asFloat(final Object obj) {
             if (obj instanceof Number) {
                 return ((Number) obj).floatValue();
             } else if (obj instanceof String) {
@@ -145,7 +277,42 @@ public class ClassWrapper {
             return new Integer[0];
         }
 
+        public int[] toIntArray(final Object obj) {
+            if (obj instanceof IntList) {
+                return ((IntList) obj).toIntArray();
+            } else if (obj instanceof List) {
+                List<?> list = (List<?>) obj;
+                int[] array = new int[list.size()];
+                for (int i = 0; i < array.length; i++) {
+                    array[i] = asInt(list.get(i));
+                }
+                return array;
+            }
+
+            return new int[0];
+        }
+
+        /**
+         * Returns the stored list itself if it already holds primitive ints, otherwise a converted copy.
+         */
+        public IntList getIntList(final Object obj) {
+            if (obj instanceof IntList) {
+                return (IntList) obj;
+            }
+            IntArrayList list = new IntArrayList();
+            if (obj instanceof List) {
+                for (Object element : (List<?>) obj) {
+                    list.add(asInt(element));
+                }
+            }
+            return list;
+        }
+
         public Integer getInt(final Object obj) {
+            return asInt(obj);
+        }
+
+        public int asInt(final Object obj) {
             if (obj instanceof Number) {
                 return ((Number) obj).intValue();
             } else if (obj instanceof String) {
@@ -169,6 +336,19 @@ public class ClassWrapper {
             return new Short[0];
         }
 
+        public short[] toShortArray(final Object obj) {
+            if (obj instanceof List) {
+                List<?> list = (List<?>) obj;
+                short[] array = new short[list.size()];
+                for (int i = 0; i < array.length; i++) {
+                    array[i] = getShort(list.get(i));
+                }
+                return array;
+            }
+
+            return new short[0];
+        }
+
         public Short getShort(final Object obj) {
             if (obj instanceof Number) {
                 return ((Number) obj).shortValue();
@@ -192,17 +372,43 @@ public class ClassWrapper {
             return new Byte[0];
         }
 
+        public byte[] toByteArray(final Object obj) {
+            if (obj instanceof List) {
+                List<?> list = (List<?>) obj;
+                byte[] array = new byte[list.size()];
+                for (int i = 0; i < array.length; i++) {
+                    array[i] = asByte(list.get(i));
+                }
+                return array;
+            }
+
+            return new byte[0];
+        }
+
         public Byte getByte(final Object obj) {
+            return asByte(obj);
+        }
+
+        public byte asByte(final Object obj) {
             if (obj instanceof Number) {
                 return ((Number) obj).byteValue();
-            } else if (obj instanceof STRING) {
-                return Byte.parseByte(obj.toString());
             } else {
                 return Byte.parseByte(obj.toString());
             }
         }
     }
 
+    @UtilityClass
+    public class BOOLEAN {
+
+        public boolean asBoolean(final Object obj) {
+            if (obj instanceof Boolean) {
+                return (Boolean) obj;
+            }
+            return obj.toString().equalsIgnoreCase("true");
+        }
+    }
+
     @UtilityClass
     public class STRING {
 
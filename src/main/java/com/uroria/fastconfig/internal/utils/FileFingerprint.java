@@ -0,0 +1,80 @@
+package com.uroria.fastconfig.internal.utils;
+
+import lombok.Getter;
+import lombok.NonNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32C;
+
+/**
+ * Size, modification time and optionally the CRC32C of a file at one point in time. The checksum is only
+ * computed when size and time alone cannot tell whether the content changed.
+ */
+@Getter
+public final class FileFingerprint {
+    private static final long NO_CHECKSUM = -1;
+
+    private final long size;
+    private final long lastModified;
+    private final long checksum;
+
+    private FileFingerprint(long size, long lastModified, long checksum) {
+        this.size = size;
+        this.lastModified = lastModified;
+        this.checksum = checksum;
+    }
+
+    /**
+     * Reads size and modification time with a single stat call, or returns null if the file is gone.
+     */
+    @Nullable
+    public static FileFingerprint stat(@NonNull File file) {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(file.toPath(), BasicFileAttributes.class);
+            return new FileFingerprint(attributes.size(), attributes.lastModifiedTime().to(TimeUnit.MICROSECONDS), NO_CHECKSUM);
+        } catch (IOException exception) {
+            return null;
+        }
+    }
+
+    @Nullable
+    public FileFingerprint withChecksum(@NonNull File file) {
+        try {
+            return new FileFingerprint(this.size, this.lastModified, FileUtils.crc32c(file));
+        } catch (RuntimeException exception) {
+            return null;
+        }
+    }
+
+    public FileFingerprint withChecksum(long checksum) {
+        return new FileFingerprint(this.size, this.lastModified, checksum);
+    }
+
+    /**
+     * Same file state with the checksum taken over content that was already read.
+     */
+    public FileFingerprint withChecksum(@NonNull ByteBuffer content) {
+        CRC32C checksum = new CRC32C();
+        checksum.update(content.duplicate());
+        return withChecksum(checksum.getValue());
+    }
+
+    public boolean hasChecksum() {
+        return this.checksum != NO_CHECKSUM;
+    }
+
+    public boolean sameStat(@Nullable FileFingerprint other) {
+        return other != null && this.size == other.size && this.lastModified == other.lastModified;
+    }
+
+    public boolean sameContent(@Nullable FileFingerprint other) {
+        return other != null && hasChecksum() && other.hasChecksum()
+                && this.size == other.size && this.checksum == other.checksum;
+    }
+}
@@ -8,7 +8,6 @@ import lombok.SneakyThrows;
 import lombok.experimental.UtilityClass;
 import org.jetbrains.annotations.Nullable;
 
-import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
@@ -19,22 +18,34 @@ import java.io.InputStreamReader;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.Reader;
-import java.io.StringReader;
 import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.List;
-import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import java.util.zip.CRC32C;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
 @UtilityClass
 public class FileUtils {
+    /**
+     * Files of at least this many bytes are mapped instead of being copied onto the heap. A mapping lives until
+     * it is garbage collected, so files are only ever replaced and never truncated while one may exist. Windows
+     * refuses to replace a mapped file as well, so mapping is off there by default.
+     */
+    private volatile long mappingThreshold = System.getProperty("os.name", "").startsWith("Windows")
+            ? Long.MAX_VALUE : 16L * 1024 * 1024;
+
     public List<File> listFiles(@NonNull File folder) {
         return listFiles(folder, null);
     }
@@ -168,24 +179,71 @@ public class FileUtils {
         }
     }
 
-    private byte[] readAllBytes(@NonNull File file) {
+    public List<String> readAllLines(@NonNull File file) {
         try {
-            return Files.readAllBytes(file.toPath());
-        } catch (final IOException ex) {
+            return Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+        } catch (IOException ex) {
             throw new RuntimeException(ex);
         }
     }
 
-    public List<String> readAllLines(@NonNull File file) {
-        byte[] fileBytes = readAllBytes(file);
-        String asString = new String(fileBytes);
-        try (BufferedReader reader = new BufferedReader(new StringReader(asString))) {
-            return reader.lines().collect(Collectors.toList());
-        } catch (IOException ex) {
-            throw new RuntimeException(ex);
+    /**
+     * Reads the whole file for parsing. Small files are read into a heap buffer, files reaching the
+     * {@link #setMappingThreshold(long) mapping threshold} are memory mapped read only, so the parsers
+     * decode straight from the page cache. The mapping stays valid after the channel is closed.
+     */
+    public ByteBuffer readContent(@NonNull File file) throws IOException {
+        return readContent(file, true);
+    }
+
+    /**
+     * Same as {@link #readContent(File)}, but without {@code mappable} the content is always copied onto the heap.
+     * Required if parts of the buffer outlive the parse, since a mapping breaks once the file is rewritten in place.
+     */
+    public ByteBuffer readContent(@NonNull File file, boolean mappable) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) throw new IOException("File too large to parse: " + file);
+            if (mappable && size >= mappingThreshold) {
+                return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            }
+            ByteBuffer buffer = ByteBuffer.allocate((int) size);
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                // Read until full or the file got shorter in the meantime
+            }
+            buffer.flip();
+            return buffer;
+        }
+    }
+
+    /**
+     * Writes the lines to a temporary file that is moved over the target, so the target is never truncated
+     * in place.
+     */
+    public void replaceContent(@NonNull File file, @NonNull List<String> lines) throws IOException {
+        Path target = file.toPath();
+        Path temporary = target.resolveSibling(file.getName() + ".tmp");
+        try {
+            Files.write(temporary, lines);
+            try {
+                Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException exception) {
+                Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temporary);
         }
     }
 
+    public long getMappingThreshold() {
+        return mappingThreshold;
+    }
+
+    public void setMappingThreshold(long threshold) {
+        if (threshold < 0) throw new IllegalArgumentException("Mapping threshold can't be negative");
+        mappingThreshold = threshold;
+    }
+
     @SneakyThrows
     public void zipFile(String sourceDirectory, String to) {
         File fileTo = getAndMake(new File(to + ".zip"));
@@ -226,6 +284,24 @@ public class FileUtils {
         return result.toString();
     }
 
+    /**
+     * CRC32C of the whole file. Much cheaper than MD5 and good enough to detect edits.
+     */
+    public long crc32c(@NonNull File file) {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+            CRC32C checksum = new CRC32C();
+            while (channel.read(buffer) > 0) {
+                buffer.flip();
+                checksum.update(buffer);
+                buffer.clear();
+            }
+            return checksum.getValue();
+        } catch (IOException ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+
     private byte[] md5Checksum(@NonNull File file) {
         try (FileInputStream fileInputStream = new FileInputStream(file)) {
             byte[] buffer = new byte[1024];
@@ -0,0 +1,553 @@
+package com.uroria.fastconfig.internal.utils;
+
+import it.unimi.dsi.fastutil.doubles.DoubleArrayList;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.objects.Object2ObjectLinkedOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import lombok.NonNull;
+import org.json.JSONException;
+
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Single pass JSON parser that decodes UTF-8 bytes directly into the fastutil maps and lists used by
+ * {@link com.uroria.fastconfig.internal.FileData}. Like {@code JSONTokener} it also accepts single quoted
+ * strings and unquoted keys and values. Arrays that only hold plain numbers become {@link IntArrayList},
+ * {@link LongArrayList} or {@link DoubleArrayList} instead of lists of boxed values.
+ */
+public final class JsonParser {
+    private static final int KEY_CACHE_SIZE = 512;
+    private static final ThreadLocal<String[]> KEY_CACHES = ThreadLocal.withInitial(() -> new String[KEY_CACHE_SIZE]);
+    private static final int NOT_A_NUMBER = 0;
+    private static final int INT = 1;
+    private static final int LONG = 2;
+    private static final int DOUBLE = 3;
+    private static final int BIG_INTEGER = 4;
+
+    private final ByteBuffer buffer;
+    private final int limit;
+    private final String[] keyCache;
+    private final int lazyDepth;
+    private char[] chars = new char[64];
+    private long[] longs;
+    private double[] doubles;
+    private long longValue;
+    private double doubleValue;
+    private int position;
+
+    private JsonParser(ByteBuffer buffer, int start, int end, int lazyDepth) {
+        this.buffer = buffer;
+        this.position = start;
+        this.limit = end;
+        this.keyCache = KEY_CACHES.get();
+        this.lazyDepth = lazyDepth;
+    }
+
+    public static Object2ObjectLinkedOpenHashMap<String, Object> parse(@NonNull byte[] bytes) {
+        return parse(ByteBuffer.wrap(bytes));
+    }
+
+    public static Object2ObjectLinkedOpenHashMap<String, Object> parse(@NonNull ByteBuffer buffer) {
+        return parse(buffer, 0);
+    }
+
+    /**
+     * Parses only the first {@code lazyDepth} levels of objects. Objects below that are skipped and stored as
+     * {@link LazyJsonMap}s over the given buffer, so the buffer must not change while they are unparsed.
+     * Arrays are always parsed.
+     */
+    public static Object2ObjectLinkedOpenHashMap<String, Object> parse(@NonNull ByteBuffer buffer, int lazyDepth) {
+        JsonParser parser = new JsonParser(buffer, buffer.position(), buffer.limit(), lazyDepth);
+        parser.skipByteOrderMark();
+        if (parser.nextClean() != '{') {
+            throw parser.error("A JSONObject text must begin with '{'");
+        }
+        return parser.readObject(lazyDepth > 0);
+    }
+
+    static Object2ObjectLinkedOpenHashMap<String, Object> parse(ByteBuffer buffer, int start, int end, int lazyDepth) {
+        JsonParser parser = new JsonParser(buffer, start + 1, end, lazyDepth);
+        return parser.readObject(lazyDepth > 0);
+    }
+
+    private Object readValue(int c) {
+        switch (c) {
+            case '{':
+                return readObject(false);
+            case '[':
+                return readArray();
+            case '"':
+            case '\'':
+                return StringPool.internValue(readString(c));
+            default:
+                return readUnquoted(c);
+        }
+    }
+
+    private Object2ObjectLinkedOpenHashMap<String, Object> readObject(boolean lazy) {
+        Object2ObjectLinkedOpenHashMap<String, Object> map = new Object2ObjectLinkedOpenHashMap<>();
+        int c = nextClean();
+        if (c == '}') return map;
+        while (true) {
+            String key;
+            if (c == '"' || c == '\'') {
+                key = readKey(c);
+            } else if (c < 0) {
+                throw error("A JSONObject text must end with '}'");
+            } else {
+                key = readUnquotedKey();
+            }
+            if (nextClean() != ':') {
+                throw error("Expected a ':' after a key");
+            }
+            // Rejected like org.json does, a config with the same key twice is almost always a mistake
+            if (map.containsKey(key)) {
+                throw error("Duplicate key \"" + key + "\"");
+            }
+            c = nextClean();
+            map.put(key, lazy && c == '{' ? skipObject() : readValue(c));
+            c = nextClean();
+            if (c == '}') return map;
+            if (c != ',' && c != ';') {
+                throw error("Expected a ',' or '}'");
+            }
+            c = nextClean();
+            if (c == '}') return map;
+        }
+    }
+
+    /**
+     * Finds the end of the object that was just opened by counting brackets outside of strings.
+     */
+    private LazyJsonMap skipObject() {
+        int start = this.position - 1;
+        int depth = 1;
+        for (int i = this.position; i < this.limit; i++) {
+            byte b = this.buffer.get(i);
+            switch (b) {
+                case '"':
+                case '\'':
+                    i = skipString(i + 1, b);
+                    break;
+                case '{':
+                case '[':
+                    depth++;
+                    break;
+                case '}':
+                case ']':
+                    if (--depth == 0) {
+                        this.position = i + 1;
+                        return new LazyJsonMap(this.buffer, start, this.position, this.lazyDepth - 1);
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+        this.position = this.limit;
+        throw error("A JSONObject text must end with '}'");
+    }
+
+    // Returns the index of the closing quote
+    private int skipString(int start, byte quote) {
+        for (int i = start; i < this.limit; i++) {
+            byte b = this.buffer.get(i);
+            if (b == quote) return i;
+            if (b == '\\') i++;
+        }
+        this.position = this.limit;
+        throw error("Unterminated string");
+    }
+
+    private Object readArray() {
+        int c = nextClean();
+        if (c == ']') return new ObjectArrayList<>();
+        if ((c >= '0' && c <= '9') || c == '-') {
+            Object numbers = readNumberArray();
+            if (numbers != null) return numbers;
+            c = this.buffer.get(this.position - 1) & 0xFF;
+        }
+        ObjectArrayList<Object> list = new ObjectArrayList<>();
+        while (true) {
+            if (c < 0) {
+                throw error("Expected a ',' or ']'");
+            }
+            list.add(readValue(c));
+            c = nextClean();
+            if (c == ']') return list;
+            if (c != ',') {
+                throw error("Expected a ',' or ']'");
+            }
+            c = nextClean();
+            if (c == ']') return list;
+        }
+    }
+
+    /**
+     * Reads an array of plain numbers into a primitive list. Integers and decimals are not mixed, so
+     * anything else rewinds to the first element and returns null to let the generic path handle it.
+     */
+    private Object readNumberArray() {
+        int restart = this.position;
+        int kind = INT;
+        int size = 0;
+        while (true) {
+            int type = scanNumber(this.position - 1, skipUnquoted());
+            if (type == NOT_A_NUMBER || type == BIG_INTEGER || (size > 0 && (kind == DOUBLE) != (type == DOUBLE))) {
+                this.position = restart;
+                return null;
+            }
+            if (size == 0 || type == LONG) kind = type;
+            if (type == DOUBLE) {
+                doubles(size + 1)[size++] = this.doubleValue;
+            } else {
+                longs(size + 1)[size++] = this.longValue;
+            }
+            int c = nextClean();
+            if (c == ']') break;
+            if (c == ',') {
+                c = nextClean();
+                if (c == ']') break;
+            } else {
+                c = -1;
+            }
+            if ((c < '0' || c > '9') && c != '-') {
+                this.position = restart;
+                return null;
+            }
+        }
+        switch (kind) {
+            case INT:
+                int[] ints = new int[size];
+                for (int i = 0; i < size; i++) {
+                    ints[i] = (int) this.longs[i];
+                }
+                return IntArrayList.wrap(ints);
+            case LONG:
+                return new LongArrayList(this.longs, 0, size);
+            default:
+                return new DoubleArrayList(this.doubles, 0, size);
+        }
+    }
+
+    /**
+     * Plain ASCII keys are looked up in a small per-thread cache by their bytes, so repeated key names do
+     * not allocate a new string each time.
+     */
+    private String readKey(int quote) {
+        int start = this.position;
+        int hash = 0;
+        for (int i = start; i < this.limit; i++) {
+            byte b = this.buffer.get(i);
+            if (b == quote) {
+                int length = i - start;
+                int slot = (hash ^ (hash >>> 16)) & (KEY_CACHE_SIZE - 1);
+                String cached = this.keyCache[slot];
+                if (cached == null || !matches(cached, start, length)) {
+                    cached = StringPool.intern(asciiString(start, length));
+                    this.keyCache[slot] = cached;
+                }
+                this.position = i + 1;
+                return cached;
+            }
+            if (b < 0x20 || b == '\\') break;
+            hash = 31 * hash + b;
+        }
+        return StringPool.intern(readString(quote));
+    }
+
+    private boolean matches(String cached, int start, int length) {
+        if (cached.length() != length) return false;
+        for (int i = 0; i < length; i++) {
+            if (cached.charAt(i) != this.buffer.get(start + i)) return false;
+        }
+        return true;
+    }
+
+    private String asciiString(int start, int length) {
+        if (this.buffer.hasArray()) {
+            return new String(this.buffer.array(), this.buffer.arrayOffset() + start, length, StandardCharsets.ISO_8859_1);
+        }
+        char[] chars = chars(length);
+        for (int i = 0; i < length; i++) {
+            chars[i] = (char) this.buffer.get(start + i);
+        }
+        return new String(chars, 0, length);
+    }
+
+    private String readString(int quote) {
+        int start = this.position;
+        for (int i = start; i < this.limit; i++) {
+            byte b = this.buffer.get(i);
+            if (b == quote) {
+                this.position = i + 1;
+                return asciiString(start, i - start);
+            }
+            if (b < 0x20 || b == '\\') break;
+        }
+
+        int length = 0;
+        char[] chars = this.chars;
+        while (true) {
+            if (this.position >= this.limit) {
+                throw error("Unterminated string");
+            }
+            if (chars.length - length < 2) {
+                chars = chars(chars.length * 2, length);
+            }
+            int b = this.buffer.get(this.position++);
+            if (b == quote) {
+                return new String(chars, 0, length);
+            } else if (b == '\\') {
+                chars[length++] = readEscape();
+            } else if (b >= 0) {
+                if (b == '\n' || b == '\r') {
+                    throw error("Unterminated string");
+                }
+                chars[length++] = (char) b;
+            } else if ((b & 0xE0) == 0xC0) {
+                chars[length++] = (char) (((b & 0x1F) << 6) | continuation());
+            } else if ((b & 0xF0) == 0xE0) {
+                chars[length++] = (char) (((b & 0x0F) << 12) | (continuation() << 6) | continuation());
+            } else if ((b & 0xF8) == 0xF0) {
+                int codePoint = ((b & 0x07) << 18) | (continuation() << 12) | (continuation() << 6) | continuation();
+                chars[length++] = Character.highSurrogate(codePoint);
+                chars[length++] = Character.lowSurrogate(codePoint);
+            } else {
+                throw error("Malformed UTF-8 sequence");
+            }
+        }
+    }
+
+    private int continuation() {
+        if (this.position >= this.limit) {
+            throw error("Malformed UTF-8 sequence");
+        }
+        int b = this.buffer.get(this.position++);
+        if ((b & 0xC0) != 0x80) {
+            throw error("Malformed UTF-8 sequence");
+        }
+        return b & 0x3F;
+    }
+
+    private char readEscape() {
+        if (this.position >= this.limit) {
+            throw error("Unterminated string");
+        }
+        int c = this.buffer.get(this.position++);
+        switch (c) {
+            case 'b':
+                return '\b';
+            case 't':
+                return '\t';
+            case 'n':
+                return '\n';
+            case 'f':
+                return '\f';
+            case 'r':
+                return '\r';
+            case 'u':
+                if (this.limit - this.position < 4) {
+                    throw error("Illegal escape");
+                }
+                int value = 0;
+                for (int i = 0; i < 4; i++) {
+                    int digit = Character.digit(this.buffer.get(this.position++), 16);
+                    if (digit < 0) {
+                        throw error("Illegal escape");
+                    }
+                    value = (value << 4) | digit;
+                }
+                return (char) value;
+            case '"':
+            case '\'':
+            case '\\':
+            case '/':
+                return (char) c;
+            default:
+                throw error("Illegal escape");
+        }
+    }
+
+    private String readUnquotedKey() {
+        int start = this.position - 1;
+        int end = skipUnquoted();
+        if (end == start) {
+            throw error("Missing key");
+        }
+        return asciiOrUtf8(start, end - start);
+    }
+
+    private Object readUnquoted(int first) {
+        int start = this.position - 1;
+        int end = skipUnquoted();
+        int length = end - start;
+        if (length == 0) {
+            throw error("Missing value");
+        }
+        if ((first >= '0' && first <= '9') || first == '-') {
+            Number number = readNumber(start, end);
+            if (number != null) return number;
+        }
+        String token = asciiOrUtf8(start, length);
+        switch (token) {
+            case "true":
+                return Boolean.TRUE;
+            case "false":
+                return Boolean.FALSE;
+            case "null":
+                return null;
+            default:
+                return token;
+        }
+    }
+
+    private int skipUnquoted() {
+        int end = this.position - 1;
+        while (end < this.limit && !isDelimiter(this.buffer.get(end))) {
+            end++;
+        }
+        this.position = Math.max(end, this.position);
+        return end;
+    }
+
+    private Number readNumber(int start, int end) {
+        switch (scanNumber(start, end)) {
+            case INT:
+                return (int) this.longValue;
+            case LONG:
+                return this.longValue;
+            case DOUBLE:
+                return this.doubleValue;
+            case BIG_INTEGER:
+                return new BigInteger(asciiString(start, end - start));
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Classifies the token and leaves its value in {@code longValue} or {@code doubleValue}, so callers
+     * decide themselves whether to box it.
+     */
+    private int scanNumber(int start, int end) {
+        int i = start;
+        boolean negative = this.buffer.get(i) == '-';
+        if (negative) i++;
+        if (i == end) return NOT_A_NUMBER;
+        boolean decimal = false;
+        for (int j = i; j < end; j++) {
+            byte b = this.buffer.get(j);
+            if (b >= '0' && b <= '9') {
+                continue;
+            }
+            if (b == '.' || b == 'e' || b == 'E' || b == '+' || b == '-') {
+                decimal = true;
+                continue;
+            }
+            return NOT_A_NUMBER;
+        }
+        if (decimal) {
+            try {
+                this.doubleValue = Double.parseDouble(asciiString(start, end - start));
+                return DOUBLE;
+            } catch (NumberFormatException exception) {
+                return NOT_A_NUMBER;
+            }
+        }
+        if (end - i > 18) {
+            BigInteger big = new BigInteger(asciiString(start, end - start));
+            if (big.bitLength() > 63) return BIG_INTEGER;
+            this.longValue = big.longValue();
+            return LONG;
+        }
+        long value = 0;
+        for (; i < end; i++) {
+            value = value * 10 + (this.buffer.get(i) - '0');
+        }
+        this.longValue = negative ? -value : value;
+        return this.longValue >= Integer.MIN_VALUE && this.longValue <= Integer.MAX_VALUE ? INT : LONG;
+    }
+
+    private String asciiOrUtf8(int start, int length) {
+        for (int i = start; i < start + length; i++) {
+            if (this.buffer.get(i) < 0) {
+                byte[] bytes = new byte[length];
+                this.buffer.get(start, bytes);
+                return new String(bytes, StandardCharsets.UTF_8);
+            }
+        }
+        return asciiString(start, length);
+    }
+
+    private boolean isDelimiter(byte b) {
+        switch (b) {
+            case ',':
+            case ':':
+            case ']':
+            case '}':
+            case '/':
+            case '\\':
+            case '"':
+            case '[':
+            case '{':
+            case ';':
+            case '=':
+            case '#':
+                return true;
+            default:
+                return b >= 0 && b <= ' ';
+        }
+    }
+
+    private int nextClean() {
+        while (this.position < this.limit) {
+            byte b = this.buffer.get(this.position++);
+            if (b < 0 || b > ' ') return b & 0xFF;
+        }
+        return -1;
+    }
+
+    private void skipByteOrderMark() {
+        if (this.limit - this.position >= 3 && this.buffer.get(this.position) == (byte) 0xEF
+                && this.buffer.get(this.position + 1) == (byte) 0xBB && this.buffer.get(this.position + 2) == (byte) 0xBF) {
+            this.position += 3;
+        }
+    }
+
+    private char[] chars(int length) {
+        if (this.chars.length < length) {
+            this.chars = new char[Math.max(length, this.chars.length * 2)];
+        }
+        return this.chars;
+    }
+
+    private long[] longs(int length) {
+        if (this.longs == null || this.longs.length < length) {
+            this.longs = this.longs == null ? new long[Math.max(length, 16)] : Arrays.copyOf(this.longs, this.longs.length * 2);
+        }
+        return this.longs;
+    }
+
+    private double[] doubles(int length) {
+        if (this.doubles == null || this.doubles.length < length) {
+            this.doubles = this.doubles == null ? new double[Math.max(length, 16)] : Arrays.copyOf(this.doubles, this.doubles.length * 2);
+        }
+        return this.doubles;
+    }
+
+    private char[] chars(int length, int used) {
+        char[] grown = new char[length];
+        System.arraycopy(this.chars, 0, grown, 0, used);
+        this.chars = grown;
+        return grown;
+    }
+
+    private JSONException error(String message) {
+        return new JSONException(message + " at " + this.position);
+    }
+}
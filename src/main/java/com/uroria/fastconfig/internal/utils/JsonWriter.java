@@ -0,0 +1,278 @@
+package com.uroria.fastconfig.internal.utils;
+
+import it.unimi.dsi.fastutil.doubles.DoubleList;
+import it.unimi.dsi.fastutil.ints.IntList;
+import it.unimi.dsi.fastutil.longs.LongList;
+import lombok.NonNull;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Streams a map tree as UTF-8 JSON into a file channel. Every thread reuses one writer and its buffer,
+ * so writing does not build an intermediate JSON tree or string. The pretty layout and the number format match
+ * {@code JSONObject.toString(3)}, except that non-finite numbers are written as null instead of failing.
+ */
+@SuppressWarnings("unchecked")
+public final class JsonWriter extends ChannelWriter {
+    private static final int INDENT = 3;
+    private static final ThreadLocal<JsonWriter> WRITERS = ThreadLocal.withInitial(JsonWriter::new);
+
+    private boolean pretty;
+
+    private JsonWriter() {
+    }
+
+    /**
+     * Replaces the file through a temporary one, so readers and crashes never leave a partially written file.
+     *
+     * @return the CRC32C of the written content
+     */
+    public static long write(@NonNull File file, @NonNull Map<String, Object> map, boolean pretty) throws IOException {
+        return write(file, map, pretty, true);
+    }
+
+    /**
+     * Same as {@link #write(File, Map, boolean)}, but without {@code replace} the file is truncated and
+     * overwritten in place. Only safe for files that are not mapped.
+     */
+    public static long write(@NonNull File file, @NonNull Map<String, Object> map, boolean pretty, boolean replace) throws IOException {
+        JsonWriter writer = WRITERS.get();
+        writer.open(file, replace);
+        boolean success = false;
+        try {
+            writer.pretty = pretty;
+            writer.writeMap(map, 0);
+            success = true;
+        } finally {
+            if (!success) writer.close(false);
+        }
+        return writer.close(true);
+    }
+
+    private void writeValue(Object value, int depth) throws IOException {
+        if (value == null || value == JSONObject.NULL) {
+            writeAscii("null");
+        } else if (value instanceof String) {
+            writeString((String) value);
+        } else if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+            writeLong(((Number) value).longValue());
+        } else if (value instanceof Double || value instanceof Float) {
+            writeDouble(((Number) value).doubleValue(), value);
+        } else if (value instanceof Number) {
+            writeDecimal(value.toString());
+        } else if (value instanceof Boolean) {
+            writeAscii((Boolean) value ? "true" : "false");
+        } else if (value instanceof LazyJsonMap) {
+            // Untouched subtrees are copied as they were read
+            ByteBuffer content = ((LazyJsonMap) value).content();
+            if (content != null) writeBytes(content);
+            else writeMap((Map<String, Object>) value, depth);
+        } else if (value instanceof Map) {
+            writeMap((Map<String, Object>) value, depth);
+        } else if (value instanceof IntList || value instanceof LongList || value instanceof DoubleList) {
+            writeNumbers((List<?>) value, depth);
+        } else if (value instanceof Iterable) {
+            writeIterable((Iterable<?>) value, depth);
+        } else if (value.getClass().isArray()) {
+            writeArray(value, depth);
+        } else if (value instanceof Enum) {
+            writeString(((Enum<?>) value).name());
+        } else if (value instanceof JSONObject) {
+            writeMap(((JSONObject) value).toMap(), depth);
+        } else if (value instanceof JSONArray) {
+            writeIterable(((JSONArray) value).toList(), depth);
+        } else {
+            writeString(value.toString());
+        }
+    }
+
+    private void writeMap(Map<String, Object> map, int depth) throws IOException {
+        int size = map.size();
+        if (size == 0) {
+            writeAscii("{}");
+            return;
+        }
+        writeByte('{');
+        if (size == 1) {
+            Map.Entry<String, Object> entry = map.entrySet().iterator().next();
+            writeKey(entry.getKey());
+            writeValue(entry.getValue(), depth);
+            writeByte('}');
+            return;
+        }
+        boolean first = true;
+        for (Map.Entry<String, Object> entry : map.entrySet()) {
+            if (!first) writeByte(',');
+            first = false;
+            newLine(depth + 1);
+            writeKey(entry.getKey());
+            writeValue(entry.getValue(), depth + 1);
+        }
+        newLine(depth);
+        writeByte('}');
+    }
+
+    private void writeIterable(Iterable<?> iterable, int depth) throws IOException {
+        Iterator<?> iterator = iterable.iterator();
+        if (!iterator.hasNext()) {
+            writeAscii("[]");
+            return;
+        }
+        writeByte('[');
+        Object first = iterator.next();
+        if (!iterator.hasNext()) {
+            writeValue(first, depth);
+            writeByte(']');
+            return;
+        }
+        newLine(depth + 1);
+        writeValue(first, depth + 1);
+        while (iterator.hasNext()) {
+            writeByte(',');
+            newLine(depth + 1);
+            writeValue(iterator.next(), depth + 1);
+        }
+        newLine(depth);
+        writeByte(']');
+    }
+
+    // Primitive lists are read by index so their elements are never boxed
+    private void writeNumbers(List<?> list, int depth) throws IOException {
+        int size = list.size();
+        if (size == 0) {
+            writeAscii("[]");
+            return;
+        }
+        writeByte('[');
+        if (size == 1) {
+            writeNumber(list, 0);
+            writeByte(']');
+            return;
+        }
+        for (int i = 0; i < size; i++) {
+            if (i > 0) writeByte(',');
+            newLine(depth + 1);
+            writeNumber(list, i);
+        }
+        newLine(depth);
+        writeByte(']');
+    }
+
+    private void writeNumber(List<?> list, int index) throws IOException {
+        if (list instanceof IntList) {
+            writeLong(((IntList) list).getInt(index));
+        } else if (list instanceof LongList) {
+            writeLong(((LongList) list).getLong(index));
+        } else {
+            writeDouble(((DoubleList) list).getDouble(index), null);
+        }
+    }
+
+    private void writeArray(Object array, int depth) throws IOException {
+        int length = Array.getLength(array);
+        if (length == 0) {
+            writeAscii("[]");
+            return;
+        }
+        writeByte('[');
+        if (length == 1) {
+            writeValue(Array.get(array, 0), depth);
+            writeByte(']');
+            return;
+        }
+        for (int i = 0; i < length; i++) {
+            if (i > 0) writeByte(',');
+            newLine(depth + 1);
+            writeValue(Array.get(array, i), depth + 1);
+        }
+        newLine(depth);
+        writeByte(']');
+    }
+
+    private void writeKey(String key) throws IOException {
+        writeString(key);
+        writeByte(':');
+        if (this.pretty) writeByte(' ');
+    }
+
+    private void newLine(int depth) throws IOException {
+        if (!this.pretty) return;
+        writeByte('\n');
+        for (int i = depth * INDENT; i > 0; i--) {
+            writeByte(' ');
+        }
+    }
+
+    private void writeString(String string) throws IOException {
+        writeByte('"');
+        int length = string.length();
+        for (int i = 0; i < length; i++) {
+            char c = string.charAt(i);
+            if (c < 0x80) {
+                if (c == '"' || c == '\\') {
+                    writeByte('\\');
+                    writeByte(c);
+                } else if (c >= 0x20) {
+                    writeByte(c);
+                } else {
+                    writeControl(c);
+                }
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(string.charAt(i + 1))) {
+                writeCodePoint(Character.toCodePoint(c, string.charAt(++i)));
+            } else if (Character.isSurrogate(c) || c == '\u2028' || c == '\u2029') {
+                writeUnicodeEscape(c);
+            } else {
+                writeCodePoint(c);
+            }
+        }
+        writeByte('"');
+    }
+
+    private void writeControl(char c) throws IOException {
+        switch (c) {
+            case '\b':
+                writeAscii("\\b");
+                break;
+            case '\t':
+                writeAscii("\\t");
+                break;
+            case '\n':
+                writeAscii("\\n");
+                break;
+            case '\f':
+                writeAscii("\\f");
+                break;
+            case '\r':
+                writeAscii("\\r");
+                break;
+            default:
+                writeUnicodeEscape(c);
+        }
+    }
+
+    private void writeDouble(double value, Object boxed) throws IOException {
+        if (!Double.isFinite(value)) {
+            writeAscii("null");
+        } else {
+            writeDecimal(boxed == null ? Double.toString(value) : boxed.toString());
+        }
+    }
+
+    // Like JSONObject.numberToString, trailing zeros and a trailing decimal point are dropped unless there is an exponent
+    private void writeDecimal(String number) throws IOException {
+        int end = number.length();
+        if (number.indexOf('.') > 0 && number.indexOf('e') < 0 && number.indexOf('E') < 0) {
+            while (number.charAt(end - 1) == '0') end--;
+            if (number.charAt(end - 1) == '.') end--;
+        }
+        writeAscii(end == number.length() ? number : number.substring(0, end));
+    }
+}
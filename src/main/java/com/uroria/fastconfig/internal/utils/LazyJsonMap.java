@@ -0,0 +1,152 @@
+package com.uroria.fastconfig.internal.utils;
+
+import it.unimi.dsi.fastutil.objects.Object2ObjectLinkedOpenHashMap;
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.ByteBuffer;
+import java.util.AbstractMap;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A JSON object that was only located by the parser, not parsed. It keeps the byte range of its source and
+ * parses it on the first access, so subtrees nobody reads never become objects. Until then the writer copies
+ * the original bytes instead of serializing the map.
+ * <p>
+ * Syntax errors inside the range only surface when it is parsed, as a {@link org.json.JSONException}.
+ */
+public final class LazyJsonMap extends AbstractMap<String, Object> {
+    private ByteBuffer source;
+    private final int start;
+    private final int end;
+    private final int lazyDepth;
+    private volatile Object2ObjectLinkedOpenHashMap<String, Object> map;
+
+    LazyJsonMap(ByteBuffer source, int start, int end, int lazyDepth) {
+        this.source = source;
+        this.start = start;
+        this.end = end;
+        this.lazyDepth = lazyDepth;
+    }
+
+    public boolean isParsed() {
+        return this.map != null;
+    }
+
+    /**
+     * Returns the original bytes of this object, or null once it was parsed and may have been changed.
+     */
+    @Nullable
+    public synchronized ByteBuffer content() {
+        if (this.map != null) return null;
+        return this.source.duplicate().limit(this.end).position(this.start);
+    }
+
+    /**
+     * Returns an unparsed copy over the same bytes, or null if this one was already parsed.
+     */
+    @Nullable
+    public synchronized LazyJsonMap copy() {
+        if (this.map != null) return null;
+        return new LazyJsonMap(this.source, this.start, this.end, this.lazyDepth);
+    }
+
+    /**
+     * Whether both are still unparsed and hold the same bytes, which lets a reload keep the old instance
+     * without parsing either of them.
+     */
+    public static boolean sameContent(LazyJsonMap first, LazyJsonMap second) {
+        ByteBuffer a = first.content();
+        ByteBuffer b = second.content();
+        return a != null && b != null && a.equals(b);
+    }
+
+    private Object2ObjectLinkedOpenHashMap<String, Object> map() {
+        Object2ObjectLinkedOpenHashMap<String, Object> map = this.map;
+        if (map != null) return map;
+        synchronized (this) {
+            if (this.map == null) {
+                this.map = JsonParser.parse(this.source, this.start, this.end, this.lazyDepth);
+                // The parsed map is the only state from now on, so the source can be unmapped or collected
+                this.source = null;
+            }
+            return this.map;
+        }
+    }
+
+    @Override
+    public int size() {
+        return map().size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return map().isEmpty();
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return map().containsKey(key);
+    }
+
+    @Override
+    public boolean containsValue(Object value) {
+        return map().containsValue(value);
+    }
+
+    @Override
+    public Object get(Object key) {
+        return map().get(key);
+    }
+
+    @Override
+    public Object put(String key, Object value) {
+        return map().put(key, value);
+    }
+
+    @Override
+    public Object remove(Object key) {
+        return map().remove(key);
+    }
+
+    @Override
+    public void putAll(Map<? extends String, ?> map) {
+        map().putAll(map);
+    }
+
+    @Override
+    public void clear() {
+        map().clear();
+    }
+
+    @Override
+    public Set<String> keySet() {
+        return map().keySet();
+    }
+
+    @Override
+    public Collection<Object> values() {
+        return map().values();
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        return map().entrySet();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj == this || map().equals(obj);
+    }
+
+    @Override
+    public int hashCode() {
+        return map().hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return map().toString();
+    }
+}
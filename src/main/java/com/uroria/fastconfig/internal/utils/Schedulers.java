@@ -0,0 +1,47 @@
+package com.uroria.fastconfig.internal.utils;
+
+import lombok.experimental.UtilityClass;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@UtilityClass
+public class Schedulers {
+    private final AtomicInteger threadCount = new AtomicInteger();
+    private final AtomicInteger ioThreadCount = new AtomicInteger();
+
+    private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(1, runnable -> {
+        Thread thread = new Thread(runnable, "FastConfig-Scheduler-" + threadCount.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final ExecutorService io = createIoExecutor();
+
+    public ScheduledExecutorService scheduler() {
+        return scheduler;
+    }
+
+    /**
+     * Default executor for blocking file work of the async methods. Starts a virtual thread per task when the
+     * runtime has them, otherwise it is a cached pool of daemon threads.
+     */
+    public ExecutorService io() {
+        return io;
+    }
+
+    private ExecutorService createIoExecutor() {
+        try {
+            // Looked up reflectively since the library is compiled for Java 17
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException exception) {
+            return Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(runnable, "FastConfig-IO-" + ioThreadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.uroria.fastconfig.internal.utils;
+
+import it.unimi.dsi.fastutil.objects.ObjectArrayFIFOQueue;
+import lombok.NonNull;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs submitted actions one after another in submission order, each on the executor it was submitted with.
+ * No thread is held between actions, so any number of instances can share one executor. Actions that complete
+ * inside {@link Executor#execute}, as with a direct executor, are followed by the next one in a loop rather
+ * than a nested call, so long queues can't overflow the stack.
+ */
+public final class SerialExecutor {
+    private static final int PENDING = 0;
+    private static final int DONE_INLINE = 1;
+    private static final int HANDED_OFF = 2;
+
+    // Guarded by this
+    private final ObjectArrayFIFOQueue<Task<?>> tasks = new ObjectArrayFIFOQueue<>();
+    private boolean running;
+
+    public <T> CompletableFuture<T> submit(@NonNull Executor executor, @NonNull Supplier<T> action) {
+        Task<T> task = new Task<>(executor, action);
+        synchronized (this) {
+            this.tasks.enqueue(task);
+            if (this.running) return task.future;
+            this.running = true;
+        }
+        runNext();
+        return task.future;
+    }
+
+    private void runNext() {
+        while (true) {
+            Task<?> task;
+            synchronized (this) {
+                if (this.tasks.isEmpty()) {
+                    this.running = false;
+                    return;
+                }
+                task = this.tasks.dequeue();
+            }
+            try {
+                task.executor.execute(() -> {
+                    task.run();
+                    // Once execute() returned nobody else continues the queue, otherwise the loop below does
+                    if (!task.handoff.compareAndSet(PENDING, DONE_INLINE)) runNext();
+                });
+                if (task.handoff.compareAndSet(PENDING, HANDED_OFF)) return;
+            } catch (RejectedExecutionException exception) {
+                // The action never runs, so the next one may start right away
+                task.future.completeExceptionally(exception);
+            }
+        }
+    }
+
+    private static final class Task<T> {
+        private final Executor executor;
+        private final Supplier<T> action;
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+        // Decides whether the thread that calls execute() or the one that ran the action continues the queue
+        private final AtomicInteger handoff = new AtomicInteger(PENDING);
+
+        private Task(Executor executor, Supplier<T> action) {
+            this.executor = executor;
+            this.action = action;
+        }
+
+        private void run() {
+            try {
+                this.future.complete(this.action.get());
+            } catch (Throwable throwable) {
+                this.future.completeExceptionally(throwable);
+            }
+        }
+    }
+}
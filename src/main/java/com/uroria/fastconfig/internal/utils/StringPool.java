@@ -0,0 +1,156 @@
+package com.uroria.fastconfig.internal.utils;
+
+import lombok.experimental.UtilityClass;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.ref.WeakReference;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Opt-in pool that lets all loaded files share one instance of every key and, optionally, of short string
+ * values. Entries are weakly referenced, so strings no file uses anymore are collected as usual. The pool is
+ * split into stripes by hash to keep parsers on different threads from contending on a single lock.
+ */
+@UtilityClass
+public class StringPool {
+    private final int STRIPES = 32;
+    // Rough heap size of a String with its byte array on a 64 bit VM with compressed pointers
+    private final int STRING_OVERHEAD = 40;
+
+    private final Stripe[] stripes = createStripes();
+    private final LongAdder lookups = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder savedBytes = new LongAdder();
+    private volatile boolean enabled;
+    private volatile int valueLimit;
+
+    /**
+     * Enables or disables pooling for everything parsed or inserted afterwards. Strings that were already
+     * pooled keep being shared.
+     */
+    public void setEnabled(boolean enabled) {
+        StringPool.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * String values up to this length are pooled as well, 0 only pools keys.
+     */
+    public void setValueLimit(int valueLimit) {
+        if (valueLimit < 0) throw new IllegalArgumentException("Value limit can't be negative");
+        StringPool.valueLimit = valueLimit;
+    }
+
+    public int getValueLimit() {
+        return valueLimit;
+    }
+
+    /**
+     * Returns the pooled instance of a key, or the key itself if pooling is disabled.
+     */
+    public String intern(String string) {
+        if (!enabled || string == null) return string;
+        lookups.increment();
+        Stripe stripe = stripes[spread(string.hashCode()) & (STRIPES - 1)];
+        Entry entry;
+        String pooled;
+        synchronized (stripe) {
+            entry = stripe.strings.get(string);
+            pooled = entry == null ? null : entry.get();
+            if (pooled == null) {
+                // The size is only measured once per pooled string, hits just read it
+                stripe.strings.put(string, new Entry(string));
+                return string;
+            }
+        }
+        if (pooled != string) {
+            hits.increment();
+            savedBytes.add(entry.bytes);
+        }
+        return pooled;
+    }
+
+    /**
+     * Pools the value if it is a string within the {@link #setValueLimit(int) value limit}.
+     */
+    @Nullable
+    public Object internValue(@Nullable Object value) {
+        if (!enabled || !(value instanceof String)) return value;
+        String string = (String) value;
+        return string.length() <= valueLimit ? intern(string) : string;
+    }
+
+    /**
+     * Number of distinct strings currently in the pool.
+     */
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.strings.size();
+            }
+        }
+        return size;
+    }
+
+    public long getLookups() {
+        return lookups.sum();
+    }
+
+    /**
+     * Number of lookups that returned an existing instance instead of the given copy.
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * Estimated bytes of duplicate strings that were dropped in favour of a pooled instance. Counts every
+     * replaced copy, so it measures the savings over the lifetime of the pool, not the current heap.
+     */
+    public long getSavedBytes() {
+        return savedBytes.sum();
+    }
+
+    public void resetMetrics() {
+        lookups.reset();
+        hits.reset();
+        savedBytes.reset();
+    }
+
+    private boolean isLatin1(String string) {
+        for (int i = 0; i < string.length(); i++) {
+            if (string.charAt(i) > 0xFF) return false;
+        }
+        return true;
+    }
+
+    private int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private Stripe[] createStripes() {
+        Stripe[] stripes = new Stripe[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe();
+        }
+        return stripes;
+    }
+
+    private static final class Stripe {
+        private final WeakHashMap<String, Entry> strings = new WeakHashMap<>();
+    }
+
+    private static final class Entry extends WeakReference<String> {
+        private final int bytes;
+
+        private Entry(String string) {
+            super(string);
+            this.bytes = STRING_OVERHEAD + string.length() * (isLatin1(string) ? 1 : 2);
+        }
+    }
+}
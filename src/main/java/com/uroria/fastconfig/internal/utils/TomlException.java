@@ -0,0 +1,10 @@
+package com.uroria.fastconfig.internal.utils;
+
+/**
+ * Thrown when a TOML document cannot be parsed.
+ */
+public class TomlException extends RuntimeException {
+    public TomlException(String message) {
+        super(message);
+    }
+}
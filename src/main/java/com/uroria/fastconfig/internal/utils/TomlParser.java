@@ -0,0 +1,738 @@
+package com.uroria.fastconfig.internal.utils;
+
+import it.unimi.dsi.fastutil.doubles.DoubleArrayList;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.objects.Object2ObjectLinkedOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import lombok.NonNull;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Single pass TOML parser that decodes UTF-8 bytes directly into the fastutil maps and lists used by
+ * {@link com.uroria.fastconfig.internal.FileData}. Integers become {@code Integer} or {@code Long}, floats
+ * {@code Double}, date-times the matching {@code java.time} type, and numeric arrays primitive lists like
+ * in {@link JsonParser}.
+ */
+@SuppressWarnings("unchecked")
+public final class TomlParser {
+    private final ByteBuffer buffer;
+    private final int limit;
+    private final Object2ObjectLinkedOpenHashMap<String, Object> root = new Object2ObjectLinkedOpenHashMap<>();
+    // Tables opened by a [header], tables created by dotted keys, inline tables and arrays that cannot be
+    // extended, and arrays of tables
+    private final Set<Object> defined = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final Set<Object> dotted = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final Set<Object> frozen = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final Set<Object> tableArrays = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final ObjectArrayList<String> keys = new ObjectArrayList<>();
+    private char[] chars = new char[64];
+    private int length;
+    private int position;
+
+    private TomlParser(ByteBuffer buffer) {
+        this.buffer = buffer;
+        this.position = buffer.position();
+        this.limit = buffer.limit();
+    }
+
+    public static Object2ObjectLinkedOpenHashMap<String, Object> parse(@NonNull byte[] bytes) {
+        return parse(ByteBuffer.wrap(bytes));
+    }
+
+    public static Object2ObjectLinkedOpenHashMap<String, Object> parse(@NonNull ByteBuffer buffer) {
+        TomlParser parser = new TomlParser(buffer);
+        parser.readDocument();
+        return parser.root;
+    }
+
+    private void readDocument() {
+        skipByteOrderMark();
+        Map<String, Object> table = this.root;
+        while (true) {
+            skipBlank();
+            if (this.position >= this.limit) return;
+            if (peek() == '[') {
+                table = readTableHeader();
+            } else {
+                readKeyValue(table);
+            }
+            expectLineEnd();
+        }
+    }
+
+    private Map<String, Object> readTableHeader() {
+        this.position++;
+        boolean array = peek() == '[';
+        if (array) this.position++;
+        skipWhitespace();
+        List<String> keys = readKey();
+        skipWhitespace();
+        if (next() != ']' || (array && next() != ']')) {
+            throw error(array ? "Expected ']]'" : "Expected ']'");
+        }
+        Map<String, Object> parent = this.root;
+        for (int i = 0; i < keys.size() - 1; i++) {
+            parent = headerChild(parent, keys.get(i));
+        }
+        String key = keys.get(keys.size() - 1);
+        Object existing = parent.get(key);
+        if (array) {
+            List<Object> tables;
+            if (existing == null) {
+                tables = new ObjectArrayList<>();
+                this.tableArrays.add(tables);
+                parent.put(key, tables);
+            } else if (this.tableArrays.contains(existing)) {
+                tables = (List<Object>) existing;
+            } else {
+                throw error("Key '" + key + "' is already defined");
+            }
+            Map<String, Object> table = new Object2ObjectLinkedOpenHashMap<>();
+            tables.add(table);
+            this.defined.add(table);
+            return table;
+        }
+        if (existing == null) {
+            Map<String, Object> table = new Object2ObjectLinkedOpenHashMap<>();
+            parent.put(key, table);
+            this.defined.add(table);
+            return table;
+        }
+        if (!(existing instanceof Map) || this.frozen.contains(existing) || this.dotted.contains(existing)
+                || !this.defined.add(existing)) {
+            throw error("Table '" + key + "' is already defined");
+        }
+        return (Map<String, Object>) existing;
+    }
+
+    // Intermediate parts of a header may walk into the last table of an array of tables
+    private Map<String, Object> headerChild(Map<String, Object> parent, String key) {
+        Object existing = parent.get(key);
+        if (existing == null) {
+            Map<String, Object> table = new Object2ObjectLinkedOpenHashMap<>();
+            parent.put(key, table);
+            return table;
+        }
+        if (existing instanceof Map && !this.frozen.contains(existing)) {
+            return (Map<String, Object>) existing;
+        }
+        if (this.tableArrays.contains(existing)) {
+            List<Object> tables = (List<Object>) existing;
+            return (Map<String, Object>) tables.get(tables.size() - 1);
+        }
+        throw error("Key '" + key + "' is already defined");
+    }
+
+    private void readKeyValue(Map<String, Object> table) {
+        List<String> keys = readKey();
+        skipWhitespace();
+        if (next() != '=') {
+            throw error("Expected '=' after a key");
+        }
+        skipWhitespace();
+        // The key list is reused by nested inline tables, so resolve the target before reading the value
+        for (int i = 0; i < keys.size() - 1; i++) {
+            table = dottedChild(table, keys.get(i));
+        }
+        String key = keys.get(keys.size() - 1);
+        if (table.containsKey(key)) {
+            throw error("Duplicate key '" + key + "'");
+        }
+        table.put(key, readValue());
+    }
+
+    // Dotted keys may only extend tables they created themselves, never one opened by a header
+    private Map<String, Object> dottedChild(Map<String, Object> table, String key) {
+        Object existing = table.get(key);
+        if (existing == null) {
+            Map<String, Object> child = new Object2ObjectLinkedOpenHashMap<>();
+            table.put(key, child);
+            this.dotted.add(child);
+            return child;
+        }
+        if (this.dotted.contains(existing)) {
+            return (Map<String, Object>) existing;
+        }
+        throw error("Key '" + key + "' is already defined");
+    }
+
+    private List<String> readKey() {
+        List<String> keys = this.keys;
+        keys.clear();
+        while (true) {
+            int c = peek();
+            if (c == '"') {
+                this.position++;
+                keys.add(StringPool.intern(readBasicString()));
+            } else if (c == '\'') {
+                this.position++;
+                keys.add(StringPool.intern(readLiteralString()));
+            } else {
+                keys.add(StringPool.intern(readBareKey()));
+            }
+            skipWhitespace();
+            if (peek() != '.') return keys;
+            this.position++;
+            skipWhitespace();
+        }
+    }
+
+    private String readBareKey() {
+        int start = this.position;
+        while (this.position < this.limit && isBareKeyChar(this.buffer.get(this.position))) {
+            this.position++;
+        }
+        if (this.position == start) {
+            throw error("Expected a key");
+        }
+        return asciiString(start, this.position - start);
+    }
+
+    private Object readValue() {
+        int c = peek();
+        switch (c) {
+            case '"':
+                this.position++;
+                if (startsWith("\"\"")) {
+                    this.position += 2;
+                    return readMultilineBasicString();
+                }
+                return StringPool.internValue(readBasicString());
+            case '\'':
+                this.position++;
+                if (startsWith("''")) {
+                    this.position += 2;
+                    return readMultilineLiteralString();
+                }
+                return StringPool.internValue(readLiteralString());
+            case '[':
+                this.position++;
+                return readArray();
+            case '{':
+                this.position++;
+                return readInlineTable();
+            case 't':
+                expectWord("true");
+                return Boolean.TRUE;
+            case 'f':
+                expectWord("false");
+                return Boolean.FALSE;
+            case -1:
+                throw error("Missing value");
+            default:
+                return readScalar();
+        }
+    }
+
+    private Object readArray() {
+        List<Object> list = new ObjectArrayList<>();
+        while (true) {
+            skipBlank();
+            if (peek() == ']') {
+                this.position++;
+                break;
+            }
+            list.add(readValue());
+            skipBlank();
+            int c = next();
+            if (c == ']') break;
+            if (c != ',') {
+                throw error("Expected ',' or ']'");
+            }
+        }
+        Object array = numericList(list);
+        this.frozen.add(array);
+        return array;
+    }
+
+    private Map<String, Object> readInlineTable() {
+        Map<String, Object> table = new Object2ObjectLinkedOpenHashMap<>();
+        skipInlineWhitespace();
+        if (peek() == '}') {
+            this.position++;
+        } else {
+            while (true) {
+                skipInlineWhitespace();
+                readKeyValue(table);
+                skipInlineWhitespace();
+                int c = next();
+                if (c == '}') break;
+                if (c != ',') {
+                    throw error("Expected ',' or '}'");
+                }
+                skipInlineWhitespace();
+                if (peek() == '}') {
+                    this.position++;
+                    break;
+                }
+            }
+        }
+        this.frozen.add(table);
+        return table;
+    }
+
+    // Same conversion as the JSON parser: lists of only ints, only integers or only floats become primitive
+    private static Object numericList(List<Object> list) {
+        if (list.isEmpty()) return list;
+        boolean ints = true;
+        boolean longs = true;
+        boolean doubles = true;
+        for (Object element : list) {
+            ints &= element instanceof Integer;
+            longs &= element instanceof Integer || element instanceof Long;
+            doubles &= element instanceof Double;
+            if (!longs && !doubles) return list;
+        }
+        int size = list.size();
+        if (ints) {
+            int[] array = new int[size];
+            for (int i = 0; i < size; i++) array[i] = (Integer) list.get(i);
+            return IntArrayList.wrap(array);
+        } else if (longs) {
+            long[] array = new long[size];
+            for (int i = 0; i < size; i++) array[i] = ((Number) list.get(i)).longValue();
+            return LongArrayList.wrap(array);
+        }
+        double[] array = new double[size];
+        for (int i = 0; i < size; i++) array[i] = (Double) list.get(i);
+        return DoubleArrayList.wrap(array);
+    }
+
+    private String readBasicString() {
+        this.length = 0;
+        while (true) {
+            int b = nextByte("Unterminated string");
+            if (b == '"') return new String(this.chars, 0, this.length);
+            if (b == '\\') {
+                readEscape();
+            } else if (b == '\n' || b == '\r') {
+                throw error("Unterminated string");
+            } else {
+                appendByte(b);
+            }
+        }
+    }
+
+    private String readMultilineBasicString() {
+        this.length = 0;
+        skipNewline();
+        while (true) {
+            int b = nextByte("Unterminated string");
+            if (b == '"' && startsWith("\"\"")) {
+                this.position += 2;
+                // Up to two quotes right before the closing delimiter belong to the content
+                for (int i = 0; i < 2 && peek() == '"'; i++) {
+                    this.position++;
+                    append('"');
+                }
+                return new String(this.chars, 0, this.length);
+            }
+            if (b == '\\') {
+                int start = this.position;
+                skipWhitespace();
+                if (peek() == '\n' || peek() == '\r') {
+                    skipBlankWithoutComments();
+                } else {
+                    this.position = start;
+                    readEscape();
+                }
+            } else {
+                appendByte(b);
+            }
+        }
+    }
+
+    private String readLiteralString() {
+        int start = this.position;
+        while (true) {
+            int b = nextByte("Unterminated string");
+            if (b == '\'') {
+                return utf8String(start, this.position - 1 - start);
+            }
+            if (b == '\n' || b == '\r') {
+                throw error("Unterminated string");
+            }
+        }
+    }
+
+    private String readMultilineLiteralString() {
+        skipNewline();
+        int start = this.position;
+        while (true) {
+            int b = nextByte("Unterminated string");
+            if (b == '\'' && startsWith("''")) {
+                int end = this.position - 1;
+                this.position += 2;
+                for (int i = 0; i < 2 && peek() == '\''; i++) {
+                    this.position++;
+                    end++;
+                }
+                return utf8String(start, end - start);
+            }
+        }
+    }
+
+    private void readEscape() {
+        int c = nextByte("Unterminated string");
+        switch (c) {
+            case 'b':
+                append('\b');
+                break;
+            case 't':
+                append('\t');
+                break;
+            case 'n':
+                append('\n');
+                break;
+            case 'f':
+                append('\f');
+                break;
+            case 'r':
+                append('\r');
+                break;
+            case 'e':
+                append('\u001B');
+                break;
+            case '"':
+            case '\\':
+                append((char) c);
+                break;
+            case 'x':
+                appendCodePoint(readHex(2));
+                break;
+            case 'u':
+                appendCodePoint(readHex(4));
+                break;
+            case 'U':
+                appendCodePoint(readHex(8));
+                break;
+            default:
+                throw error("Illegal escape");
+        }
+    }
+
+    private int readHex(int digits) {
+        if (this.limit - this.position < digits) {
+            throw error("Illegal escape");
+        }
+        int value = 0;
+        for (int i = 0; i < digits; i++) {
+            int digit = Character.digit(this.buffer.get(this.position++), 16);
+            if (digit < 0) {
+                throw error("Illegal escape");
+            }
+            value = (value << 4) | digit;
+        }
+        if (!Character.isValidCodePoint(value) || (value >= 0xD800 && value <= 0xDFFF)) {
+            throw error("Illegal escape");
+        }
+        return value;
+    }
+
+    /**
+     * Numbers, special floats and date-times. A local date followed by a space and a time is read as one
+     * date-time, as the spec allows.
+     */
+    private Object readScalar() {
+        int start = this.position;
+        while (this.position < this.limit && isScalarChar(this.buffer.get(this.position))) {
+            this.position++;
+        }
+        if (this.position - start == 10 && this.buffer.get(start + 4) == '-' && this.limit - this.position > 3
+                && this.buffer.get(this.position) == ' ' && isDigit(this.buffer.get(this.position + 1))
+                && isDigit(this.buffer.get(this.position + 2)) && this.buffer.get(this.position + 3) == ':') {
+            this.position++;
+            while (this.position < this.limit && isScalarChar(this.buffer.get(this.position))) {
+                this.position++;
+            }
+        }
+        int length = this.position - start;
+        if (length == 0) {
+            throw error("Invalid value");
+        }
+        String token = asciiString(start, length);
+        switch (token) {
+            case "inf":
+            case "+inf":
+                return Double.POSITIVE_INFINITY;
+            case "-inf":
+                return Double.NEGATIVE_INFINITY;
+            case "nan":
+            case "+nan":
+            case "-nan":
+                return Double.NaN;
+            default:
+                break;
+        }
+        if (length > 2 && token.charAt(0) == '0') {
+            switch (token.charAt(1)) {
+                case 'x':
+                    return readInteger(token.substring(2), 16);
+                case 'o':
+                    return readInteger(token.substring(2), 8);
+                case 'b':
+                    return readInteger(token.substring(2), 2);
+                default:
+                    break;
+            }
+        }
+        if (token.indexOf(':') >= 0 || (length >= 10 && token.charAt(4) == '-' && token.charAt(7) == '-')) {
+            return readDateTime(token);
+        }
+        int digits = token.charAt(0) == '+' || token.charAt(0) == '-' ? 1 : 0;
+        if (length > digits + 1 && token.charAt(digits) == '0'
+                && (isDigit((byte) token.charAt(digits + 1)) || token.charAt(digits + 1) == '_')) {
+            throw error("Leading zeros are not allowed in '" + token + "'");
+        }
+        if (token.indexOf('.') >= 0 || token.indexOf('e') >= 0 || token.indexOf('E') >= 0) {
+            try {
+                return Double.parseDouble(withoutUnderscores(token));
+            } catch (NumberFormatException exception) {
+                throw error("Invalid float '" + token + "'");
+            }
+        }
+        return readInteger(token, 10);
+    }
+
+    private Number readInteger(String token, int radix) {
+        try {
+            long value = Long.parseLong(withoutUnderscores(token), radix);
+            if (value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE) return (int) value;
+            return value;
+        } catch (NumberFormatException exception) {
+            throw error("Invalid integer '" + token + "'");
+        }
+    }
+
+    private Object readDateTime(String token) {
+        try {
+            if (token.length() == 10) return LocalDate.parse(token);
+            if (token.charAt(2) == ':') return LocalTime.parse(token);
+            String text = token.replace(' ', 'T').replace('t', 'T').replace('z', 'Z');
+            char last = text.charAt(text.length() - 1);
+            if (last == 'Z' || text.indexOf('+', 10) > 0 || text.indexOf('-', 10) > 0) {
+                return OffsetDateTime.parse(text);
+            }
+            return LocalDateTime.parse(text);
+        } catch (DateTimeParseException exception) {
+            throw error("Invalid date-time '" + token + "'");
+        }
+    }
+
+    private String withoutUnderscores(String token) {
+        if (token.indexOf('_') < 0) return token;
+        StringBuilder builder = new StringBuilder(token.length());
+        for (int i = 0; i < token.length(); i++) {
+            char c = token.charAt(i);
+            if (c != '_') {
+                builder.append(c);
+            } else if (i == 0 || i == token.length() - 1 || !Character.isLetterOrDigit(token.charAt(i - 1))
+                    || !Character.isLetterOrDigit(token.charAt(i + 1))) {
+                throw error("Misplaced '_' in '" + token + "'");
+            }
+        }
+        return builder.toString();
+    }
+
+    private void expectWord(String word) {
+        if (!startsWith(word)) {
+            throw error("Invalid value");
+        }
+        this.position += word.length();
+    }
+
+    private void expectLineEnd() {
+        skipWhitespace();
+        if (peek() == '#') skipComment();
+        int c = peek();
+        if (c == -1) return;
+        if (c == '\n') {
+            this.position++;
+        } else if (c == '\r' && startsWith("\r\n")) {
+            this.position += 2;
+        } else {
+            throw error("Expected a new line");
+        }
+    }
+
+    // Whitespace, new lines and comments
+    private void skipBlank() {
+        while (this.position < this.limit) {
+            byte b = this.buffer.get(this.position);
+            if (b == '#') {
+                skipComment();
+            } else if (b == ' ' || b == '\t' || b == '\n' || b == '\r') {
+                this.position++;
+            } else {
+                return;
+            }
+        }
+    }
+
+    private void skipBlankWithoutComments() {
+        while (this.position < this.limit) {
+            byte b = this.buffer.get(this.position);
+            if (b != ' ' && b != '\t' && b != '\n' && b != '\r') return;
+            this.position++;
+        }
+    }
+
+    private void skipWhitespace() {
+        while (this.position < this.limit) {
+            byte b = this.buffer.get(this.position);
+            if (b != ' ' && b != '\t') return;
+            this.position++;
+        }
+    }
+
+    // Inline tables must stay on one line, only their values may span several
+    private void skipInlineWhitespace() {
+        skipWhitespace();
+        int c = peek();
+        if (c == '\n' || c == '\r' || c == '#') {
+            throw error("Inline tables can't span multiple lines");
+        }
+    }
+
+    private void skipComment() {
+        while (this.position < this.limit && this.buffer.get(this.position) != '\n') {
+            this.position++;
+        }
+    }
+
+    private void skipNewline() {
+        if (peek() == '\n') {
+            this.position++;
+        } else if (startsWith("\r\n")) {
+            this.position += 2;
+        }
+    }
+
+    private void skipByteOrderMark() {
+        if (this.limit - this.position >= 3 && this.buffer.get(this.position) == (byte) 0xEF
+                && this.buffer.get(this.position + 1) == (byte) 0xBB && this.buffer.get(this.position + 2) == (byte) 0xBF) {
+            this.position += 3;
+        }
+    }
+
+    private boolean startsWith(String text) {
+        if (this.limit - this.position < text.length()) return false;
+        for (int i = 0; i < text.length(); i++) {
+            if (this.buffer.get(this.position + i) != text.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    private int peek() {
+        return this.position < this.limit ? this.buffer.get(this.position) & 0xFF : -1;
+    }
+
+    private int next() {
+        return this.position < this.limit ? this.buffer.get(this.position++) & 0xFF : -1;
+    }
+
+    private int nextByte(String message) {
+        if (this.position >= this.limit) {
+            throw error(message);
+        }
+        return this.buffer.get(this.position++);
+    }
+
+    // Decodes one UTF-8 sequence starting with the given byte into the char buffer
+    private void appendByte(int b) {
+        if (b >= 0) {
+            append((char) b);
+        } else if ((b & 0xE0) == 0xC0) {
+            append((char) (((b & 0x1F) << 6) | continuation()));
+        } else if ((b & 0xF0) == 0xE0) {
+            append((char) (((b & 0x0F) << 12) | (continuation() << 6) | continuation()));
+        } else if ((b & 0xF8) == 0xF0) {
+            appendCodePoint(((b & 0x07) << 18) | (continuation() << 12) | (continuation() << 6) | continuation());
+        } else {
+            throw error("Malformed UTF-8 sequence");
+        }
+    }
+
+    private int continuation() {
+        int b = nextByte("Malformed UTF-8 sequence");
+        if ((b & 0xC0) != 0x80) {
+            throw error("Malformed UTF-8 sequence");
+        }
+        return b & 0x3F;
+    }
+
+    private void appendCodePoint(int codePoint) {
+        if (Character.isBmpCodePoint(codePoint)) {
+            append((char) codePoint);
+        } else {
+            append(Character.highSurrogate(codePoint));
+            append(Character.lowSurrogate(codePoint));
+        }
+    }
+
+    private void append(char c) {
+        if (this.length == this.chars.length) {
+            char[] grown = new char[this.chars.length * 2];
+            System.arraycopy(this.chars, 0, grown, 0, this.length);
+            this.chars = grown;
+        }
+        this.chars[this.length++] = c;
+    }
+
+    private String asciiString(int start, int length) {
+        if (this.buffer.hasArray()) {
+            return new String(this.buffer.array(), this.buffer.arrayOffset() + start, length, StandardCharsets.ISO_8859_1);
+        }
+        byte[] bytes = new byte[length];
+        this.buffer.get(start, bytes);
+        return new String(bytes, StandardCharsets.ISO_8859_1);
+    }
+
+    private String utf8String(int start, int length) {
+        if (this.buffer.hasArray()) {
+            return new String(this.buffer.array(), this.buffer.arrayOffset() + start, length, StandardCharsets.UTF_8);
+        }
+        byte[] bytes = new byte[length];
+        this.buffer.get(start, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static boolean isBareKeyChar(byte b) {
+        return (b >= 'a' && b <= 'z') || (b >= 'A' && b <= 'Z') || isDigit(b) || b == '_' || b == '-';
+    }
+
+    private static boolean isScalarChar(byte b) {
+        return isBareKeyChar(b) || b == '+' || b == '.' || b == ':';
+    }
+
+    private static boolean isDigit(byte b) {
+        return b >= '0' && b <= '9';
+    }
+
+    private TomlException error(String message) {
+        int line = 1;
+        int column = 1;
+        for (int i = this.buffer.position(); i < Math.min(this.position, this.limit); i++) {
+            if (this.buffer.get(i) == '\n') {
+                line++;
+                column = 1;
+            } else {
+                column++;
+            }
+        }
+        return new TomlException(message + " at line " + line + ", column " + column);
+    }
+}
@@ -0,0 +1,302 @@
+package com.uroria.fastconfig.internal.utils;
+
+import it.unimi.dsi.fastutil.doubles.DoubleList;
+import it.unimi.dsi.fastutil.ints.IntList;
+import it.unimi.dsi.fastutil.longs.LongList;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import lombok.NonNull;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.math.BigInteger;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Streams a map tree as UTF-8 TOML into a file channel. Plain values of a table come first, followed by
+ * its sub tables as {@code [headers]} and lists of maps as {@code [[arrays of tables]]}. Maps nested in
+ * lists are written as inline tables. TOML has no null, so null values in tables are left out and null array
+ * elements are rejected, since dropping them would shift the remaining ones.
+ */
+@SuppressWarnings("unchecked")
+public final class TomlWriter extends ChannelWriter {
+    private static final ThreadLocal<TomlWriter> WRITERS = ThreadLocal.withInitial(TomlWriter::new);
+
+    private final ObjectArrayList<String> path = new ObjectArrayList<>();
+    private boolean started;
+
+    private TomlWriter() {
+    }
+
+    /**
+     * Replaces the file through a temporary one, it is never truncated in place.
+     *
+     * @return the CRC32C of the written content
+     */
+    public static long write(@NonNull File file, @NonNull Map<String, Object> map) throws IOException {
+        TomlWriter writer = WRITERS.get();
+        writer.open(file, true);
+        boolean success = false;
+        try {
+            writer.started = false;
+            writer.path.clear();
+            writer.writeTable(map);
+            success = true;
+        } finally {
+            if (!success) writer.close(false);
+        }
+        return writer.close(true);
+    }
+
+    private void writeTable(Map<String, Object> table) throws IOException {
+        for (Map.Entry<String, Object> entry : table.entrySet()) {
+            Object value = entry.getValue();
+            if (value == null || value == JSONObject.NULL || value instanceof Map || isTableArray(value)) continue;
+            writeKey(entry.getKey());
+            writeAscii(" = ");
+            writeValue(value);
+            writeByte('\n');
+            this.started = true;
+        }
+        for (Map.Entry<String, Object> entry : table.entrySet()) {
+            Object value = entry.getValue();
+            if (value instanceof Map) {
+                Map<String, Object> child = (Map<String, Object>) value;
+                this.path.push(entry.getKey());
+                // A table holding nothing but other tables is created implicitly by their headers
+                if (hasPlainValues(child) || !hasTables(child)) writeHeader(false);
+                writeTable(child);
+                this.path.pop();
+            } else if (isTableArray(value)) {
+                this.path.push(entry.getKey());
+                for (Object element : (List<Object>) value) {
+                    writeHeader(true);
+                    writeTable((Map<String, Object>) element);
+                }
+                this.path.pop();
+            }
+        }
+    }
+
+    private void writeHeader(boolean array) throws IOException {
+        if (this.started) writeByte('\n');
+        this.started = true;
+        writeByte('[');
+        if (array) writeByte('[');
+        for (int i = 0; i < this.path.size(); i++) {
+            if (i > 0) writeByte('.');
+            writeKey(this.path.get(i));
+        }
+        writeByte(']');
+        if (array) writeByte(']');
+        writeByte('\n');
+    }
+
+    private static boolean hasPlainValues(Map<String, Object> table) {
+        for (Object value : table.values()) {
+            if (value != null && value != JSONObject.NULL && !(value instanceof Map) && !isTableArray(value)) return true;
+        }
+        return false;
+    }
+
+    private static boolean hasTables(Map<String, Object> table) {
+        for (Object value : table.values()) {
+            if (value instanceof Map || isTableArray(value)) return true;
+        }
+        return false;
+    }
+
+    private static boolean isTableArray(Object value) {
+        if (!(value instanceof List) || value instanceof IntList || value instanceof LongList || value instanceof DoubleList) {
+            return false;
+        }
+        List<Object> list = (List<Object>) value;
+        if (list.isEmpty()) return false;
+        for (Object element : list) {
+            if (!(element instanceof Map)) return false;
+        }
+        return true;
+    }
+
+    private void writeValue(Object value) throws IOException {
+        if (value instanceof String) {
+            writeString((String) value);
+        } else if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+            writeLong(((Number) value).longValue());
+        } else if (value instanceof Double) {
+            writeDouble((Double) value, null);
+        } else if (value instanceof Float) {
+            writeDouble((Float) value, value);
+        } else if (value instanceof BigInteger) {
+            BigInteger big = (BigInteger) value;
+            if (big.bitLength() < 64) writeLong(big.longValue());
+            else writeString(big.toString());
+        } else if (value instanceof Number) {
+            writeDouble(((Number) value).doubleValue(), null);
+        } else if (value instanceof Boolean) {
+            writeAscii((Boolean) value ? "true" : "false");
+        } else if (value instanceof OffsetDateTime) {
+            writeAscii(DateTimeFormatter.ISO_OFFSET_DATE_TIME.format((OffsetDateTime) value));
+        } else if (value instanceof LocalDateTime) {
+            writeAscii(DateTimeFormatter.ISO_LOCAL_DATE_TIME.format((LocalDateTime) value));
+        } else if (value instanceof LocalDate) {
+            writeAscii(value.toString());
+        } else if (value instanceof LocalTime) {
+            writeAscii(DateTimeFormatter.ISO_LOCAL_TIME.format((LocalTime) value));
+        } else if (value instanceof Map) {
+            writeInlineTable((Map<String, Object>) value);
+        } else if (value instanceof IntList || value instanceof LongList || value instanceof DoubleList) {
+            writeNumbers((List<?>) value);
+        } else if (value instanceof Iterable) {
+            writeIterable(((Iterable<Object>) value).iterator());
+        } else if (value.getClass().isArray()) {
+            writeArray(value);
+        } else if (value instanceof Enum) {
+            writeString(((Enum<?>) value).name());
+        } else if (value instanceof JSONObject) {
+            writeInlineTable(((JSONObject) value).toMap());
+        } else if (value instanceof JSONArray) {
+            writeIterable(((JSONArray) value).toList().iterator());
+        } else {
+            writeString(value.toString());
+        }
+    }
+
+    private void writeInlineTable(Map<String, Object> table) throws IOException {
+        writeByte('{');
+        boolean first = true;
+        for (Map.Entry<String, Object> entry : table.entrySet()) {
+            Object value = entry.getValue();
+            if (value == null || value == JSONObject.NULL) continue;
+            writeAscii(first ? " " : ", ");
+            first = false;
+            writeKey(entry.getKey());
+            writeAscii(" = ");
+            writeValue(value);
+        }
+        writeAscii(first ? "}" : " }");
+    }
+
+    private void writeIterable(Iterator<Object> iterator) throws IOException {
+        writeByte('[');
+        boolean first = true;
+        while (iterator.hasNext()) {
+            Object value = iterator.next();
+            if (value == null || value == JSONObject.NULL) throw nullElement();
+            if (!first) writeAscii(", ");
+            first = false;
+            writeValue(value);
+        }
+        writeByte(']');
+    }
+
+    private void writeArray(Object array) throws IOException {
+        writeByte('[');
+        for (int i = 0, length = Array.getLength(array); i < length; i++) {
+            Object value = Array.get(array, i);
+            if (value == null) throw nullElement();
+            if (i > 0) writeAscii(", ");
+            writeValue(value);
+        }
+        writeByte(']');
+    }
+
+    private IllegalArgumentException nullElement() {
+        String table = this.path.isEmpty() ? "the root table" : "[" + String.join(".", this.path) + "]";
+        return new IllegalArgumentException("TOML arrays can't hold null elements, found one in " + table);
+    }
+
+    // Primitive lists are read by index so their elements are never boxed
+    private void writeNumbers(List<?> list) throws IOException {
+        writeByte('[');
+        for (int i = 0, size = list.size(); i < size; i++) {
+            if (i > 0) writeAscii(", ");
+            if (list instanceof IntList) {
+                writeLong(((IntList) list).getInt(i));
+            } else if (list instanceof LongList) {
+                writeLong(((LongList) list).getLong(i));
+            } else {
+                writeDouble(((DoubleList) list).getDouble(i), null);
+            }
+        }
+        writeByte(']');
+    }
+
+    private void writeDouble(double value, Object boxed) throws IOException {
+        if (Double.isNaN(value)) {
+            writeAscii("nan");
+        } else if (Double.isInfinite(value)) {
+            writeAscii(value > 0 ? "inf" : "-inf");
+        } else {
+            writeAscii(boxed == null ? Double.toString(value) : boxed.toString());
+        }
+    }
+
+    private void writeKey(String key) throws IOException {
+        int length = key.length();
+        boolean bare = length > 0;
+        for (int i = 0; i < length && bare; i++) {
+            char c = key.charAt(i);
+            bare = (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_' || c == '-';
+        }
+        if (bare) writeAscii(key);
+        else writeString(key);
+    }
+
+    private void writeString(String string) throws IOException {
+        writeByte('"');
+        int length = string.length();
+        for (int i = 0; i < length; i++) {
+            char c = string.charAt(i);
+            if (c < 0x80) {
+                if (c == '"' || c == '\\') {
+                    writeByte('\\');
+                    writeByte(c);
+                } else if (c >= 0x20 && c != 0x7F) {
+                    writeByte(c);
+                } else {
+                    writeControl(c);
+                }
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(string.charAt(i + 1))) {
+                writeCodePoint(Character.toCodePoint(c, string.charAt(++i)));
+            } else if (Character.isSurrogate(c)) {
+                // TOML strings can only hold valid code points
+                writeCodePoint(0xFFFD);
+            } else {
+                writeCodePoint(c);
+            }
+        }
+        writeByte('"');
+    }
+
+    private void writeControl(char c) throws IOException {
+        switch (c) {
+            case '\b':
+                writeAscii("\\b");
+                break;
+            case '\t':
+                writeAscii("\\t");
+                break;
+            case '\n':
+                writeAscii("\\n");
+                break;
+            case '\f':
+                writeAscii("\\f");
+                break;
+            case '\r':
+                writeAscii("\\r");
+                break;
+            default:
+                writeUnicodeEscape(c);
+        }
+    }
+}
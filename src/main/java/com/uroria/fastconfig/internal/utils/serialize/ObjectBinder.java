@@ -0,0 +1,748 @@
+package com.uroria.fastconfig.internal.utils.serialize;
+
+import it.unimi.dsi.fastutil.objects.Object2ObjectLinkedOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import it.unimi.dsi.fastutil.objects.ObjectLinkedOpenHashSet;
+import lombok.NonNull;
+import lombok.experimental.UtilityClass;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.RecordComponent;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.lang.reflect.WildcardType;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.net.URI;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.MonthDay;
+import java.time.OffsetDateTime;
+import java.time.OffsetTime;
+import java.time.Period;
+import java.time.Year;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+
+/**
+ * Maps config subtrees to records and plain objects and back. The structure of a class is inspected once and
+ * turned into method handles and per-field converters, which are cached per class, so binding itself does no
+ * reflection.
+ * <p>
+ * Records are created through their canonical constructor and read through their accessors. Other classes need
+ * a no-argument constructor and are mapped by their non-static, non-transient, non-final fields, including
+ * inherited ones. Missing keys leave primitives at zero, references at null and plain object fields at the
+ * value the constructor assigned. Fields may be scalars, enums, nested bound types, arrays, collections, maps
+ * with string or enum keys, common value types like {@link UUID}, {@link java.time} types, {@link URI} and
+ * {@link File}, which are stored as strings, or any type with a registered {@link ConfSerializable}. Other
+ * {@code java.*} classes are rejected, since the files could not read them back. Collections and maps are
+ * created as the declared type, interfaces get a fitting default implementation, and a declared type that can't be
+ * created is rejected when its class is first bound. Register serializables before binding the classes using them,
+ * the plan of a class is not recomputed afterwards.
+ */
+@SuppressWarnings({"unchecked", "rawtypes"})
+@UtilityClass
+public class ObjectBinder {
+    private final Converter ANY = new IdentityConverter(Object.class);
+    private final Converter STRING = new Converter() {
+        @Override
+        public Object read(Object raw) {
+            return raw == null ? null : raw.toString();
+        }
+
+        @Override
+        public Object write(Object value) {
+            return value;
+        }
+    };
+
+    // Stored through toString(), read through these
+    private final Map<Class<?>, Function<String, Object>> PARSERS = parsers();
+
+    private final Converter COLLECTIONS = new CollectionConverter(ObjectArrayList::new, ANY);
+    private final Converter MAPS = new MapConverter(Object2ObjectLinkedOpenHashMap::new, ANY, ANY);
+
+    // Top-level plans of read and write, fields are planned once by their binding
+    private final ClassValue<Converter> converters = new ClassValue<Converter>() {
+        @Override
+        protected Converter computeValue(Class<?> type) {
+            return converter(type);
+        }
+    };
+
+    private final ClassValue<Binding> bindings = new ClassValue<Binding>() {
+        @Override
+        protected Binding computeValue(Class<?> type) {
+            return type.isRecord() ? new RecordBinding(type) : new FieldBinding(type);
+        }
+    };
+
+    /**
+     * Creates an instance of the type from a subtree.
+     */
+    @Nullable
+    public <T> T read(@Nullable Object raw, @NonNull Class<T> type) {
+        return (T) converters.get(type).read(raw);
+    }
+
+    /**
+     * Turns an instance into the maps, lists and scalars the config files store.
+     */
+    @Nullable
+    public Object write(@Nullable Object value) {
+        if (value == null) return null;
+        // Written by their contents only, so runtime types that can't be created, like List.of(), are fine here
+        if (value instanceof Collection) return COLLECTIONS.write(value);
+        if (value instanceof Map) return MAPS.write(value);
+        return converters.get(value.getClass()).write(value);
+    }
+
+    private Converter converter(Type type) {
+        if (type instanceof Class) {
+            Class<?> clazz = (Class<?>) type;
+            if (clazz.isArray()) return new ArrayConverter(clazz.getComponentType(), converter(clazz.getComponentType()));
+            Converter scalar = scalar(clazz);
+            if (scalar != null) return scalar;
+            if (SerializeUtils.isSerializable(clazz)) return new SerializableConverter(clazz);
+            if (Collection.class.isAssignableFrom(clazz)) return new CollectionConverter(collection(clazz, Object.class), ANY);
+            if (Map.class.isAssignableFrom(clazz)) return new MapConverter(map(clazz, Object.class), ANY, ANY);
+            if (clazz == Object.class || clazz.isInterface() || Modifier.isAbstract(clazz.getModifiers())) return ANY;
+            if (clazz.getName().startsWith("java.")) {
+                throw new IllegalArgumentException(clazz.getName() + " needs a ConfSerializable to be bound");
+            }
+            return new BindingConverter(clazz);
+        }
+        if (type instanceof ParameterizedType) {
+            ParameterizedType parameterized = (ParameterizedType) type;
+            Class<?> raw = (Class<?>) parameterized.getRawType();
+            Type[] arguments = parameterized.getActualTypeArguments();
+            if (Collection.class.isAssignableFrom(raw)) {
+                return new CollectionConverter(collection(raw, arguments[0]), converter(arguments[0]));
+            }
+            if (Map.class.isAssignableFrom(raw)) {
+                return new MapConverter(map(raw, arguments[0]), converter(arguments[0]), converter(arguments[1]));
+            }
+            return converter(raw);
+        }
+        if (type instanceof GenericArrayType) {
+            Type component = ((GenericArrayType) type).getGenericComponentType();
+            Class<?> erased = component instanceof ParameterizedType ? (Class<?>) ((ParameterizedType) component).getRawType() : Object.class;
+            return new ArrayConverter(erased, converter(component));
+        }
+        if (type instanceof WildcardType) return converter(((WildcardType) type).getUpperBounds()[0]);
+        if (type instanceof TypeVariable) return converter(((TypeVariable<?>) type).getBounds()[0]);
+        return ANY;
+    }
+
+    @Nullable
+    private Converter scalar(Class<?> type) {
+        if (type == String.class) return STRING;
+        if (type == int.class || type == Integer.class) return new NumberConverter(NumberConverter.INT, type.isPrimitive());
+        if (type == long.class || type == Long.class) return new NumberConverter(NumberConverter.LONG, type.isPrimitive());
+        if (type == double.class || type == Double.class) return new NumberConverter(NumberConverter.DOUBLE, type.isPrimitive());
+        if (type == float.class || type == Float.class) return new NumberConverter(NumberConverter.FLOAT, type.isPrimitive());
+        if (type == short.class || type == Short.class) return new NumberConverter(NumberConverter.SHORT, type.isPrimitive());
+        if (type == byte.class || type == Byte.class) return new NumberConverter(NumberConverter.BYTE, type.isPrimitive());
+        if (type == boolean.class || type == Boolean.class) return new BooleanConverter(type.isPrimitive());
+        if (type == char.class || type == Character.class) return new CharacterConverter(type.isPrimitive());
+        if (type.isEnum()) return new EnumConverter(type);
+        // Kept as numbers in the tree, but the parsers may return another Number type after a reload
+        if (type == BigDecimal.class) return new ParsingConverter(type, BigDecimal::new, false);
+        if (type == BigInteger.class) return new ParsingConverter(type, BigInteger::new, false);
+        Function<String, Object> parser = PARSERS.get(type);
+        if (parser != null) return new ParsingConverter(type, parser, true);
+        // Region based zones are subclasses, offsets are handled above
+        if (ZoneId.class.isAssignableFrom(type)) return new ParsingConverter(ZoneId.class, ZoneId::of, true);
+        return null;
+    }
+
+    private Map<Class<?>, Function<String, Object>> parsers() {
+        Map<Class<?>, Function<String, Object>> parsers = new Object2ObjectOpenHashMap<>();
+        parsers.put(UUID.class, UUID::fromString);
+        parsers.put(URI.class, URI::create);
+        parsers.put(File.class, File::new);
+        parsers.put(Instant.class, Instant::parse);
+        parsers.put(Duration.class, Duration::parse);
+        parsers.put(Period.class, Period::parse);
+        parsers.put(LocalDate.class, LocalDate::parse);
+        parsers.put(LocalTime.class, LocalTime::parse);
+        parsers.put(LocalDateTime.class, LocalDateTime::parse);
+        parsers.put(OffsetTime.class, OffsetTime::parse);
+        parsers.put(OffsetDateTime.class, OffsetDateTime::parse);
+        parsers.put(ZonedDateTime.class, ZonedDateTime::parse);
+        parsers.put(Year.class, Year::parse);
+        parsers.put(YearMonth.class, YearMonth::parse);
+        parsers.put(MonthDay.class, MonthDay::parse);
+        parsers.put(ZoneOffset.class, ZoneOffset::of);
+        return parsers;
+    }
+
+    /**
+     * Creates empty collections assignable to the declared type, taking the expected size.
+     */
+    private IntFunction<Object> collection(Class<?> type, Type element) {
+        if (type == EnumSet.class) {
+            Class<?> elementType = erase(element);
+            if (!elementType.isEnum()) throw unsupported(type, "without an enum element type");
+            return size -> EnumSet.noneOf((Class<? extends Enum>) elementType);
+        }
+        if (!type.isInterface() && !Modifier.isAbstract(type.getModifiers())) return constructor(type);
+        if (SortedSet.class.isAssignableFrom(type)) {
+            if (type.isAssignableFrom(TreeSet.class)) return size -> new TreeSet<>();
+        } else {
+            if (type.isAssignableFrom(ObjectArrayList.class)) return ObjectArrayList::new;
+            if (type.isAssignableFrom(ObjectLinkedOpenHashSet.class)) return ObjectLinkedOpenHashSet::new;
+            if (type.isAssignableFrom(ArrayDeque.class)) return ArrayDeque::new;
+        }
+        throw unsupported(type, "without a default implementation");
+    }
+
+    /**
+     * Creates empty maps assignable to the declared type, taking the expected size.
+     */
+    private IntFunction<Object> map(Class<?> type, Type key) {
+        if (type == EnumMap.class) {
+            Class<?> keyType = erase(key);
+            if (!keyType.isEnum()) throw unsupported(type, "without an enum key type");
+            return size -> new EnumMap<>((Class<? extends Enum>) keyType);
+        }
+        if (!type.isInterface() && !Modifier.isAbstract(type.getModifiers())) return constructor(type);
+        if (SortedMap.class.isAssignableFrom(type)) {
+            if (type.isAssignableFrom(TreeMap.class)) return size -> new TreeMap<>();
+            if (type.isAssignableFrom(ConcurrentSkipListMap.class)) return size -> new ConcurrentSkipListMap<>();
+        } else {
+            if (type.isAssignableFrom(Object2ObjectLinkedOpenHashMap.class)) return Object2ObjectLinkedOpenHashMap::new;
+            if (type.isAssignableFrom(ConcurrentHashMap.class)) return ConcurrentHashMap::new;
+        }
+        throw unsupported(type, "without a default implementation");
+    }
+
+    private IntFunction<Object> constructor(Class<?> type) {
+        MethodHandle constructor;
+        try {
+            MethodHandles.Lookup lookup = Modifier.isPublic(type.getModifiers()) ? MethodHandles.publicLookup() : lookup(type);
+            constructor = lookup.findConstructor(type, MethodType.methodType(void.class)).asType(MethodType.methodType(Object.class));
+        } catch (NoSuchMethodException | IllegalAccessException exception) {
+            throw new IllegalArgumentException("Can't bind " + type.getName() + ", it needs a public no-argument constructor", exception);
+        }
+        return size -> {
+            try {
+                return (Object) constructor.invokeExact();
+            } catch (Throwable throwable) {
+                throw failure("create", type, throwable);
+            }
+        };
+    }
+
+    private IllegalArgumentException unsupported(Class<?> type, String reason) {
+        return new IllegalArgumentException("Can't bind " + type.getName() + " " + reason);
+    }
+
+    private Class<?> erase(Type type) {
+        if (type instanceof Class) return (Class<?>) type;
+        if (type instanceof ParameterizedType) return (Class<?>) ((ParameterizedType) type).getRawType();
+        if (type instanceof WildcardType) return erase(((WildcardType) type).getUpperBounds()[0]);
+        if (type instanceof TypeVariable) return erase(((TypeVariable<?>) type).getBounds()[0]);
+        return Object.class;
+    }
+
+    private Map<String, Object> asMap(Object raw, Class<?> type) {
+        if (raw instanceof Map) return (Map<String, Object>) raw;
+        throw new ClassCastException("Can't bind " + raw.getClass().getName() + " to " + type.getName() + ", expected a section");
+    }
+
+    private IllegalStateException failure(String action, Class<?> type, Throwable cause) {
+        if (cause instanceof RuntimeException && !(cause instanceof ClassCastException)) throw (RuntimeException) cause;
+        if (cause instanceof Error) throw (Error) cause;
+        return new IllegalStateException("Could not " + action + " " + type.getName(), cause);
+    }
+
+    private MethodHandles.Lookup lookup(Class<?> type) {
+        try {
+            return MethodHandles.privateLookupIn(type, MethodHandles.lookup());
+        } catch (IllegalAccessException exception) {
+            throw new IllegalArgumentException(type.getName() + " is not accessible for binding, open its package", exception);
+        }
+    }
+
+    private Object defaultValue(Class<?> type) {
+        return type.isPrimitive() ? Array.get(Array.newInstance(type, 1), 0) : null;
+    }
+
+    private interface Converter {
+        Object read(Object raw);
+
+        Object write(Object value);
+    }
+
+    private interface Binding {
+        Object read(Map<String, Object> map);
+
+        Map<String, Object> write(Object value);
+    }
+
+    private static final class RecordBinding implements Binding {
+        private final Class<?> type;
+        private final String[] names;
+        private final Converter[] converters;
+        private final Object[] defaults;
+        private final MethodHandle[] accessors;
+        // (Object[]) -> Object
+        private final MethodHandle constructor;
+
+        private RecordBinding(Class<?> type) {
+            this.type = type;
+            RecordComponent[] components = type.getRecordComponents();
+            int size = components.length;
+            this.names = new String[size];
+            this.converters = new Converter[size];
+            this.defaults = new Object[size];
+            this.accessors = new MethodHandle[size];
+            Class<?>[] parameters = new Class<?>[size];
+            MethodHandles.Lookup lookup = lookup(type);
+            try {
+                for (int i = 0; i < size; i++) {
+                    RecordComponent component = components[i];
+                    this.names[i] = component.getName();
+                    this.converters[i] = converter(component.getGenericType());
+                    this.defaults[i] = defaultValue(component.getType());
+                    this.accessors[i] = lookup.unreflect(component.getAccessor())
+                            .asType(MethodType.methodType(Object.class, Object.class));
+                    parameters[i] = component.getType();
+                }
+                this.constructor = lookup.findConstructor(type, MethodType.methodType(void.class, parameters))
+                        .asSpreader(Object[].class, size)
+                        .asType(MethodType.methodType(Object.class, Object[].class));
+            } catch (ReflectiveOperationException exception) {
+                throw new IllegalArgumentException("Can't bind record " + type.getName(), exception);
+            }
+        }
+
+        @Override
+        public Object read(Map<String, Object> map) {
+            Object[] arguments = new Object[this.names.length];
+            for (int i = 0; i < arguments.length; i++) {
+                Object raw = map.get(this.names[i]);
+                arguments[i] = raw == null ? this.defaults[i] : this.converters[i].read(raw);
+            }
+            try {
+                return (Object) this.constructor.invokeExact(arguments);
+            } catch (Throwable throwable) {
+                throw failure("create", this.type, throwable);
+            }
+        }
+
+        @Override
+        public Map<String, Object> write(Object value) {
+            Object2ObjectLinkedOpenHashMap<String, Object> map = new Object2ObjectLinkedOpenHashMap<>(this.names.length);
+            try {
+                for (int i = 0; i < this.names.length; i++) {
+                    Object component = (Object) this.accessors[i].invokeExact(value);
+                    if (component != null) map.put(this.names[i], this.converters[i].write(component));
+                }
+            } catch (Throwable throwable) {
+                throw failure("read", this.type, throwable);
+            }
+            return map;
+        }
+    }
+
+    private static final class FieldBinding implements Binding {
+        private final Class<?> type;
+        private final String[] names;
+        private final Converter[] converters;
+        private final boolean[] primitive;
+        private final MethodHandle[] getters;
+        private final MethodHandle[] setters;
+        // () -> Object
+        private final MethodHandle constructor;
+
+        private FieldBinding(Class<?> type) {
+            this.type = type;
+            List<Field> fields = new ObjectArrayList<>();
+            for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+                List<Field> declared = new ObjectArrayList<>();
+                for (Field field : current.getDeclaredFields()) {
+                    int modifiers = field.getModifiers();
+                    if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers) || Modifier.isFinal(modifiers)) continue;
+                    if (field.isSynthetic()) continue;
+                    declared.add(field);
+                }
+                // Inherited fields come first
+                fields.addAll(0, declared);
+            }
+            int size = fields.size();
+            this.names = new String[size];
+            this.converters = new Converter[size];
+            this.primitive = new boolean[size];
+            this.getters = new MethodHandle[size];
+            this.setters = new MethodHandle[size];
+            try {
+                for (int i = 0; i < size; i++) {
+                    Field field = fields.get(i);
+                    MethodHandles.Lookup lookup = lookup(field.getDeclaringClass());
+                    this.names[i] = field.getName();
+                    this.converters[i] = converter(field.getGenericType());
+                    this.primitive[i] = field.getType().isPrimitive();
+                    this.getters[i] = lookup.unreflectGetter(field).asType(MethodType.methodType(Object.class, Object.class));
+                    this.setters[i] = lookup.unreflectSetter(field).asType(MethodType.methodType(void.class, Object.class, Object.class));
+                }
+                this.constructor = lookup(type).findConstructor(type, MethodType.methodType(void.class))
+                        .asType(MethodType.methodType(Object.class));
+            } catch (NoSuchMethodException exception) {
+                throw new IllegalArgumentException(type.getName() + " needs a no-argument constructor or a ConfSerializable to be bound", exception);
+            } catch (ReflectiveOperationException exception) {
+                throw new IllegalArgumentException("Can't bind " + type.getName(), exception);
+            }
+        }
+
+        @Override
+        public Object read(Map<String, Object> map) {
+            try {
+                Object instance = (Object) this.constructor.invokeExact();
+                for (int i = 0; i < this.names.length; i++) {
+                    Object raw = map.get(this.names[i]);
+                    // Absent values keep what the constructor assigned
+                    if (raw == null) continue;
+                    this.setters[i].invokeExact(instance, this.converters[i].read(raw));
+                }
+                return instance;
+            } catch (Throwable throwable) {
+                throw failure("create", this.type, throwable);
+            }
+        }
+
+        @Override
+        public Map<String, Object> write(Object value) {
+            Object2ObjectLinkedOpenHashMap<String, Object> map = new Object2ObjectLinkedOpenHashMap<>(this.names.length);
+            try {
+                for (int i = 0; i < this.names.length; i++) {
+                    Object field = (Object) this.getters[i].invokeExact(value);
+                    if (field != null) map.put(this.names[i], this.converters[i].write(field));
+                }
+            } catch (Throwable throwable) {
+                throw failure("read", this.type, throwable);
+            }
+            return map;
+        }
+    }
+
+    private static final class BindingConverter implements Converter {
+        private final Class<?> type;
+
+        private BindingConverter(Class<?> type) {
+            this.type = type;
+        }
+
+        @Override
+        public Object read(Object raw) {
+            if (raw == null) return null;
+            if (this.type.isInstance(raw)) return raw;
+            return bindings.get(this.type).read(asMap(raw, this.type));
+        }
+
+        @Override
+        public Object write(Object value) {
+            // Subclasses are written with their own fields
+            return value == null ? null : bindings.get(value.getClass()).write(value);
+        }
+    }
+
+    private static final class SerializableConverter implements Converter {
+        private final Class<?> type;
+
+        private SerializableConverter(Class<?> type) {
+            this.type = type;
+        }
+
+        @Override
+        public Object read(Object raw) {
+            return raw == null ? null : SerializeUtils.deserialize(raw, this.type);
+        }
+
+        @Override
+        public Object write(Object value) {
+            return value == null ? null : SerializeUtils.serialize(value);
+        }
+    }
+
+    private static final class IdentityConverter implements Converter {
+        private final Class<?> type;
+
+        private IdentityConverter(Class<?> type) {
+            this.type = type;
+        }
+
+        @Override
+        public Object read(Object raw) {
+            if (raw == null || this.type.isInstance(raw)) return raw;
+            throw new ClassCastException("Can't bind " + raw.getClass().getName() + " to " + this.type.getName());
+        }
+
+        @Override
+        public Object write(Object value) {
+            // Values of unknown static type are converted by their runtime type
+            return this.type == Object.class ? ObjectBinder.write(value) : value;
+        }
+    }
+
+    private static final class ParsingConverter implements Converter {
+        private final Class<?> type;
+        private final Function<String, Object> parser;
+        private final boolean text;
+
+        private ParsingConverter(Class<?> type, Function<String, Object> parser, boolean text) {
+            this.type = type;
+            this.parser = parser;
+            this.text = text;
+        }
+
+        @Override
+        public Object read(Object raw) {
+            if (raw == null || this.type.isInstance(raw)) return raw;
+            return this.parser.apply(raw.toString().trim());
+        }
+
+        @Override
+        public Object write(Object value) {
+            return value == null || !this.text ? value : value.toString();
+        }
+    }
+
+    private static final class NumberConverter implements Converter {
+        private static final int INT = 0;
+        private static final int LONG = 1;
+        private static final int DOUBLE = 2;
+        private static final int FLOAT = 3;
+        private static final int SHORT = 4;
+        private static final int BYTE = 5;
+
+        private final int kind;
+        private final boolean primitive;
+
+        private NumberConverter(int kind, boolean primitive) {
+            this.kind = kind;
+            this.primitive = primitive;
+        }
+
+        @Override
+        public Object read(Object raw) {
+            if (raw == null) return this.primitive ? convert(0) : null;
+            if (raw instanceof Number) return convert((Number) raw);
+            String string = raw.toString().trim();
+            return convert(this.kind == DOUBLE || this.kind == FLOAT ? (Number) Double.parseDouble(string) : (Number) Long.parseLong(string));
+        }
+
+        private Object convert(Number number) {
+            switch (this.kind) {
+                case INT:
+                    return number.intValue();
+                case LONG:
+                    return number.longValue();
+                case DOUBLE:
+                    return number.doubleValue();
+                case FLOAT:
+                    return number.floatValue();
+                case SHORT:
+                    return number.shortValue();
+                default:
+                    return number.byteValue();
+            }
+        }
+
+        @Override
+        public Object write(Object value) {
+            return value;
+        }
+    }
+
+    private static final class BooleanConverter implements Converter {
+        private final boolean primitive;
+
+        private BooleanConverter(boolean primitive) {
+            this.primitive = primitive;
+        }
+
+        @Override
+        public Object read(Object raw) {
+            if (raw == null) return this.primitive ? Boolean.FALSE : null;
+            return raw instanceof Boolean ? raw : Boolean.parseBoolean(raw.toString().trim());
+        }
+
+        @Override
+        public Object write(Object value) {
+            return value;
+        }
+    }
+
+    private static final class CharacterConverter implements Converter {
+        private final boolean primitive;
+
+        private CharacterConverter(boolean primitive) {
+            this.primitive = primitive;
+        }
+
+        @Override
+        public Object read(Object raw) {
+            if (raw instanceof Character) return raw;
+            String string = raw == null ? "" : raw.toString();
+            if (string.isEmpty()) return this.primitive ? '\0' : null;
+            return string.charAt(0);
+        }
+
+        @Override
+        public Object write(Object value) {
+            return value == null ? null : value.toString();
+        }
+    }
+
+    private static final class EnumConverter implements Converter {
+        private final Class<? extends Enum> type;
+
+        private EnumConverter(Class<?> type) {
+            this.type = (Class<? extends Enum>) type;
+        }
+
+        @Override
+        public Object read(Object raw) {
+            if (raw == null || this.type.isInstance(raw)) return raw;
+            return Enum.valueOf(this.type, raw.toString());
+        }
+
+        @Override
+        public Object write(Object value) {
+            return value == null ? null : ((Enum<?>) value).name();
+        }
+    }
+
+    private static final class ArrayConverter implements Converter {
+        private final Class<?> component;
+        private final Converter elements;
+
+        private ArrayConverter(Class<?> component, Converter elements) {
+            this.component = component;
+            this.elements = elements;
+        }
+
+        @Override
+        public Object read(Object raw) {
+            if (raw == null) return null;
+            if (!(raw instanceof List)) throw new ClassCastException("Can't bind " + raw.getClass().getName() + " to an array");
+            List<Object> list = (List<Object>) raw;
+            Object array = Array.newInstance(this.component, list.size());
+            for (int i = 0; i < list.size(); i++) {
+                Array.set(array, i, this.elements.read(list.get(i)));
+            }
+            return array;
+        }
+
+        @Override
+        public Object write(Object value) {
+            if (value == null) return null;
+            int length = Array.getLength(value);
+            ObjectArrayList<Object> list = new ObjectArrayList<>(length);
+            for (int i = 0; i < length; i++) {
+                list.add(this.elements.write(Array.get(value, i)));
+            }
+            return list;
+        }
+    }
+
+    private static final class CollectionConverter implements Converter {
+        private final IntFunction<Object> factory;
+        private final Converter elements;
+
+        private CollectionConverter(IntFunction<Object> factory, Converter elements) {
+            this.factory = factory;
+            this.elements = elements;
+        }
+
+        @Override
+        public Object read(Object raw) {
+            if (raw == null) return null;
+            if (!(raw instanceof Collection)) throw new ClassCastException("Can't bind " + raw.getClass().getName() + " to a collection");
+            Collection<Object> source = (Collection<Object>) raw;
+            Collection<Object> result = (Collection<Object>) this.factory.apply(source.size());
+            for (Object element : source) {
+                result.add(this.elements.read(element));
+            }
+            return result;
+        }
+
+        @Override
+        public Object write(Object value) {
+            if (value == null) return null;
+            Collection<Object> source = (Collection<Object>) value;
+            ObjectArrayList<Object> list = new ObjectArrayList<>(source.size());
+            for (Object element : source) {
+                list.add(this.elements.write(element));
+            }
+            return list;
+        }
+    }
+
+    private static final class MapConverter implements Converter {
+        private final IntFunction<Object> factory;
+        private final Converter keys;
+        private final Converter values;
+
+        private MapConverter(IntFunction<Object> factory, Converter keys, Converter values) {
+            this.factory = factory;
+            this.keys = keys;
+            this.values = values;
+        }
+
+        @Override
+        public Object read(Object raw) {
+            if (raw == null) return null;
+            Map<String, Object> source = asMap(raw, Map.class);
+            Map<Object, Object> map = (Map<Object, Object>) this.factory.apply(source.size());
+            for (Map.Entry<String, Object> entry : source.entrySet()) {
+                map.put(this.keys.read(entry.getKey()), this.values.read(entry.getValue()));
+            }
+            return map;
+        }
+
+        @Override
+        public Object write(Object value) {
+            if (value == null) return null;
+            Map<Object, Object> source = (Map<Object, Object>) value;
+            Object2ObjectLinkedOpenHashMap<String, Object> map = new Object2ObjectLinkedOpenHashMap<>(source.size());
+            for (Map.Entry<Object, Object> entry : source.entrySet()) {
+                Object key = entry.getKey();
+                map.put(key instanceof Enum ? ((Enum<?>) key).name() : String.valueOf(key), this.values.write(entry.getValue()));
+            }
+            return map;
+        }
+    }
+}
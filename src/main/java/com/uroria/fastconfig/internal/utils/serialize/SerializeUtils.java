@@ -1,38 +1,124 @@
 package com.uroria.fastconfig.internal.utils.serialize;
 
-import it.unimi.dsi.fastutil.objects.ObjectArrayList;
-import it.unimi.dsi.fastutil.objects.ObjectList;
-import it.unimi.dsi.fastutil.objects.ObjectLists;
+import it.unimi.dsi.fastutil.objects.ObjectArrayFIFOQueue;
+import it.unimi.dsi.fastutil.objects.ObjectOpenHashSet;
 import lombok.NonNull;
 import lombok.experimental.UtilityClass;
+import org.jetbrains.annotations.Nullable;
 
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registry of {@link ConfSerializable}s. A class without its own serializable uses the one of its closest
+ * superclass, or else of the nearest matching interface. The result is resolved once per class and cached in a
+ * {@link ClassValue}, misses included, so lookups never lock. Registering a serializable invalidates the cache.
+ */
 @SuppressWarnings({"unchecked", "rawtypes"})
 @UtilityClass
 public class SerializeUtils {
-    private final ObjectList<ConfSerializable<?>> serializables = ObjectLists.synchronize(new ObjectArrayList<>());
+    private final Map<Class<?>, ConfSerializable<?>> serializables = new ConcurrentHashMap<>();
+    // Incremented after every registration, cached resolutions of an older generation are recomputed
+    private volatile int generation;
+
+    private final ClassValue<Resolution> resolutions = new ClassValue<Resolution>() {
+        @Override
+        protected Resolution computeValue(Class<?> type) {
+            // Read before resolving, so a registration that races with this one forces another resolution
+            int current = generation;
+            return new Resolution(current, resolve(type));
+        }
+    };
 
     public boolean isSerializable(Class<?> clazz) {
         return findSerializable(clazz) != null;
     }
 
-    public void registerSerializable(@NonNull ConfSerializable<?> serializable) {
-        serializables.add(serializable);
+    /**
+     * Registers the serializable for its class. The first registration of a class wins.
+     */
+    public synchronized void registerSerializable(@NonNull ConfSerializable<?> serializable) {
+        if (serializables.putIfAbsent(serializable.getClazz(), serializable) == null) {
+            generation++;
+        }
     }
 
+    @Nullable
     public ConfSerializable<?> findSerializable(Class<?> clazz) {
-        for (ConfSerializable<?> serializable : serializables) {
-            if (serializable.getClazz().equals(clazz)) return serializable;
+        if (clazz == null) return null;
+        Resolution resolution = resolutions.get(clazz);
+        if (resolution.generation != generation) {
+            resolutions.remove(clazz);
+            resolution = resolutions.get(clazz);
         }
-        return null;
+        return resolution.serializable;
     }
 
     public Object serialize(@NonNull Object object) {
-        ConfSerializable serializable = findSerializable(object.getClass());
+        ConfSerializable serializable = require(object.getClass());
         return serializable.serialize(object);
     }
 
     public <T> T deserialize(Object raw, Class<T> type) {
+        ConfSerializable<?> serializable = require(type);
+        Object value = serializable.deserialize(raw);
+        if (value != null && !type.isInstance(value)) {
+            throw new ClassCastException("ConfSerializable for " + serializable.getClazz().getName()
+                    + " returned " + value.getClass().getName() + ", which is not a " + type.getName());
+        }
+        return (T) value;
+    }
+
+    private ConfSerializable<?> require(Class<?> type) {
         ConfSerializable<?> serializable = findSerializable(type);
-        return (T) serializable.deserialize(raw);
+        if (serializable == null) {
+            throw new IllegalArgumentException("No ConfSerializable registered for " + type.getName()
+                    + " or any of its superclasses and interfaces");
+        }
+        return serializable;
+    }
+
+    private ConfSerializable<?> resolve(Class<?> type) {
+        for (Class<?> current = type; current != null; current = current.getSuperclass()) {
+            ConfSerializable<?> serializable = serializables.get(current);
+            if (serializable != null) return serializable;
+        }
+        for (Class<?> current = type; current != null; current = current.getSuperclass()) {
+            ConfSerializable<?> serializable = resolveInterfaces(current);
+            if (serializable != null) return serializable;
+        }
+        return null;
+    }
+
+    /**
+     * Searches the interfaces of a class breadth first, so a directly implemented interface wins over the
+     * interfaces it extends.
+     */
+    private ConfSerializable<?> resolveInterfaces(Class<?> type) {
+        ObjectArrayFIFOQueue<Class<?>> queue = new ObjectArrayFIFOQueue<>();
+        Set<Class<?>> visited = new ObjectOpenHashSet<>();
+        for (Class<?> implemented : type.getInterfaces()) {
+            if (visited.add(implemented)) queue.enqueue(implemented);
+        }
+        while (!queue.isEmpty()) {
+            Class<?> current = queue.dequeue();
+            ConfSerializable<?> serializable = serializables.get(current);
+            if (serializable != null) return serializable;
+            for (Class<?> parent : current.getInterfaces()) {
+                if (visited.add(parent)) queue.enqueue(parent);
+            }
+        }
+        return null;
+    }
+
+    private static final class Resolution {
+        private final int generation;
+        private final ConfSerializable<?> serializable;
+
+        private Resolution(int generation, ConfSerializable<?> serializable) {
+            this.generation = generation;
+            this.serializable = serializable;
+        }
     }
 }
@@ -1,20 +1,35 @@
 package com.uroria.fastconfig.sections;
 
+import com.uroria.fastconfig.ChangeEvent;
+import com.uroria.fastconfig.ConfigKey;
 import com.uroria.fastconfig.Configuration;
+import com.uroria.fastconfig.KeyPath;
+import com.uroria.fastconfig.Subscription;
+import com.uroria.fastconfig.Transaction;
 import com.uroria.fastconfig.internal.AbstractConfigFile;
 import lombok.Getter;
 import lombok.NonNull;
-import lombok.RequiredArgsConstructor;
 
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
-@RequiredArgsConstructor
 public class ConfigFileSection implements Configuration {
     protected final AbstractConfigFile conf;
     private @Getter final String pathPrefix;
+    private final KeyPath prefix;
+
+    public ConfigFileSection(AbstractConfigFile conf, String pathPrefix) {
+        this.conf = conf;
+        this.pathPrefix = pathPrefix;
+        this.prefix = pathPrefix == null || pathPrefix.isEmpty() ? null : KeyPath.of(pathPrefix);
+    }
 
     public ConfigFileSection getSection(String pathPrefix) {
-        return new ConfigFileSection(this.conf, createFinalKey(pathPrefix));
+        return new ConfigFileSection(this.conf, createFinalKey(KeyPath.of(pathPrefix)).toString());
     }
 
     @Override
@@ -24,6 +39,11 @@ public class ConfigFileSection implements Configuration {
 
     @Override
     public Set<String> singleLayerKeySet(String key) {
+        return singleLayerKeySet(key == null ? null : KeyPath.of(key));
+    }
+
+    @Override
+    public Set<String> singleLayerKeySet(KeyPath key) {
         return conf.singleLayerKeySet(createFinalKey(key));
     }
 
@@ -34,36 +54,93 @@ public class ConfigFileSection implements Configuration {
 
     @Override
     public Set<String> keySet(String key) {
+        return keySet(key == null ? null : KeyPath.of(key));
+    }
+
+    @Override
+    public Set<String> keySet(KeyPath key) {
         return conf.keySet(createFinalKey(key));
     }
 
+    @Override
+    public void forEachLeaf(@NonNull BiConsumer<CharSequence, Object> visitor) {
+        if (prefix == null) conf.forEachLeaf(visitor);
+        else conf.getFileData().forEachLeaf(conf.resolveKey(prefix), visitor);
+    }
+
+    @Override
+    public void forEachNode(@NonNull BiConsumer<CharSequence, Map<String, Object>> visitor) {
+        if (prefix == null) conf.forEachNode(visitor);
+        else conf.getFileData().forEachNode(conf.resolveKey(prefix), visitor);
+    }
+
+    @Override
+    public Stream<Map.Entry<String, Object>> leafStream() {
+        if (prefix == null) return conf.leafStream();
+        return conf.getFileData().leafStream(conf.resolveKey(prefix));
+    }
+
     @Override
     public void remove(String key) {
+        remove(key == null ? null : KeyPath.of(key));
+    }
+
+    @Override
+    public void remove(KeyPath key) {
         conf.remove(createFinalKey(key));
     }
 
     @Override
-    public void set(String key, Object value) {
+    public void set(@NonNull String key, Object value) {
+        set(KeyPath.of(key), value);
+    }
+
+    @Override
+    public void set(KeyPath key, Object value) {
         conf.set(createFinalKey(key), value);
     }
 
+    @Override
+    public void batch(@NonNull Consumer<Transaction> action) {
+        if (prefix == null) {
+            conf.batch(action);
+            return;
+        }
+        conf.batch(transaction -> action.accept(transaction.section(prefix)));
+    }
+
+    @Override
+    public Subscription onChange(KeyPath key, @NonNull Executor executor, @NonNull Consumer<ChangeEvent> listener) {
+        return conf.onChange(key == null ? prefix : createFinalKey(key), executor, listener);
+    }
+
     @Override
     public boolean contains(String key) {
+        return contains(key == null ? null : KeyPath.of(key));
+    }
+
+    @Override
+    public boolean contains(KeyPath key) {
         return conf.contains(createFinalKey(key));
     }
 
     @Override
     public Object get(String key) {
+        return get(key == null ? null : KeyPath.of(key));
+    }
+
+    @Override
+    public Object get(KeyPath key) {
         return conf.get(createFinalKey(key));
     }
 
     @Override
-    public <E extends Enum<E>> E getEnum(@NonNull String key, @NonNull Class<E> enumType) {
-        return conf.getEnum(createFinalKey(key), enumType);
+    public <T> T get(@NonNull ConfigKey<T> key) {
+        return key.read(conf.getFileData(), conf.resolveKey(createFinalKey(key.getPath())));
     }
 
-    private String createFinalKey(String key) {
-        return pathPrefix == null || pathPrefix.isEmpty() ? key : pathPrefix + "." + key;
+    private KeyPath createFinalKey(KeyPath key) {
+        return prefix == null || key == null ? key : prefix.resolve(key);
     }
 
 }
@@ -0,0 +1,95 @@
+package com.uroria.fastconfig;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BindingTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void valueTypesSurviveReload() {
+        Json json = new Json(this.directory.resolve("values.json").toFile());
+        Values values = new Values();
+        values.id = UUID.randomUUID();
+        values.date = LocalDate.of(2024, 2, 29);
+        values.instant = Instant.ofEpochSecond(1_700_000_000L);
+        values.timeout = Duration.ofSeconds(90);
+        values.zone = ZoneId.of("Europe/Berlin");
+        values.price = new BigDecimal("12.50");
+        json.store("values", values);
+
+        json.reload();
+        Values read = json.bind("values", Values.class);
+        assertEquals(values.id, read.id);
+        assertEquals(values.date, read.date);
+        assertEquals(values.instant, read.instant);
+        assertEquals(values.timeout, read.timeout);
+        assertEquals(values.zone, read.zone);
+        assertEquals(0, values.price.compareTo(read.price));
+    }
+
+    @Test
+    void collectionsKeepTheirDeclaredType() {
+        Json json = new Json(this.directory.resolve("collections.json").toFile());
+        Collections collections = new Collections();
+        collections.names = new ArrayList<>(List.of("a", "b"));
+        collections.ordered = new TreeMap<>();
+        collections.ordered.put("b", 2);
+        collections.ordered.put("a", 1);
+        collections.modes = new EnumMap<>(Mode.class);
+        collections.modes.put(Mode.ON, "yes");
+        json.store("collections", collections);
+
+        json.reload();
+        Collections read = json.bind("collections", Collections.class);
+        assertEquals(collections.names, read.names);
+        assertEquals(collections.ordered, read.ordered);
+        assertEquals(collections.modes, read.modes);
+    }
+
+    @Test
+    void rejectsUnknownJavaTypes() {
+        Json json = new Json(this.directory.resolve("rejected.json").toFile());
+        assertThrows(IllegalArgumentException.class, () -> json.store("date", new Legacy()));
+    }
+
+    enum Mode {
+        ON, OFF
+    }
+
+    static class Values {
+        UUID id;
+        LocalDate date;
+        Instant instant;
+        Duration timeout;
+        ZoneId zone;
+        BigDecimal price;
+    }
+
+    static class Collections {
+        ArrayList<String> names;
+        TreeMap<String, Integer> ordered;
+        EnumMap<Mode, String> modes;
+    }
+
+    static class Legacy {
+        Date date = new Date();
+    }
+}
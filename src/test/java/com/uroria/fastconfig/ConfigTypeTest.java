@@ -0,0 +1,90 @@
+package com.uroria.fastconfig;
+
+import com.uroria.fastconfig.internal.utils.serialize.SerializeUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConfigTypeTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void accessorRoundTripsThroughFile() {
+        File file = this.directory.resolve("accessor.json").toFile();
+        ServerSettingsAccessor accessor = new ServerSettingsAccessor(new Json(file), "server");
+        accessor.name("lobby");
+        accessor.maxPlayers(42);
+        accessor.ssl(true);
+        accessor.timeout(30L);
+        accessor.ratio(0.5D);
+        accessor.greeting("hello");
+        accessor.mode(ServerSettings.Mode.SLOW);
+        accessor.database(new ServerSettings_DatabaseValue("jdbc:test", 5432));
+        accessor.tags(List.of("a", "b"));
+        accessor.replicas(List.of(new ServerSettings_DatabaseValue("replica", 1)));
+
+        Json reread = new Json(file);
+        ServerSettingsAccessor read = new ServerSettingsAccessor(reread, "server");
+        assertEquals("lobby", read.name());
+        assertEquals(42, read.maxPlayers());
+        assertTrue(read.ssl());
+        assertEquals(30L, read.timeout());
+        assertEquals(0.5D, read.ratio());
+        assertEquals("hello", read.greeting());
+        assertEquals(ServerSettings.Mode.SLOW, read.mode());
+        assertEquals(new ServerSettings_DatabaseValue("jdbc:test", 5432), read.database());
+        assertEquals(List.of("a", "b"), read.tags());
+        assertEquals(List.of(new ServerSettings_DatabaseValue("replica", 1)), read.replicas());
+        assertEquals(true, reread.get("server.use-ssl"));
+        assertEquals("SLOW", reread.get("server.mode"));
+    }
+
+    @Test
+    void missingValuesUseDefaults() {
+        ServerSettingsAccessor accessor = new ServerSettingsAccessor(new Json(this.directory.resolve("empty.json").toFile()));
+        assertNull(accessor.name());
+        assertEquals(0, accessor.maxPlayers());
+        assertFalse(accessor.ssl());
+        assertNull(accessor.timeout());
+        assertEquals(0D, accessor.ratio());
+        assertNull(accessor.mode());
+        assertNull(accessor.tags());
+    }
+
+    @Test
+    void accessorParsesStrings() {
+        Json json = new Json(this.directory.resolve("strings.json").toFile());
+        json.set("maxPlayers", "7");
+        json.set("use-ssl", "true");
+        ServerSettingsAccessor accessor = new ServerSettingsAccessor(json);
+        assertEquals(7, accessor.maxPlayers());
+        assertTrue(accessor.ssl());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void serializableRoundTrips() {
+        SerializeUtils.registerSerializable(ServerSettingsSerializable.INSTANCE);
+        ServerSettings settings = new ServerSettingsValue("lobby", 10, false, null, 1.5D, "quoted",
+                ServerSettings.Mode.FAST, new ServerSettings_DatabaseValue("jdbc:test", 1), List.of("x"), List.of());
+        File file = this.directory.resolve("serializable.json").toFile();
+        new Json(file).setSerializable("settings", settings);
+
+        Json reread = new Json(file);
+        assertEquals(settings, reread.getSerializable("settings", ServerSettings.class));
+        Map<String, Object> raw = (Map<String, Object>) reread.get("settings");
+        assertEquals("quoted", raw.get("say \"hi\"\\"));
+        assertFalse(raw.containsKey("timeout"));
+        assertEquals("lobby:10", settings.display());
+    }
+}
@@ -0,0 +1,78 @@
+package com.uroria.fastconfig;
+
+import com.uroria.fastconfig.internal.utils.FileUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MappedFileTest {
+    private static final long THRESHOLD = 1024;
+
+    @TempDir
+    Path directory;
+    private long threshold;
+
+    @BeforeEach
+    void lowerThreshold() {
+        this.threshold = FileUtils.getMappingThreshold();
+        FileUtils.setMappingThreshold(THRESHOLD);
+    }
+
+    @AfterEach
+    void restoreThreshold() {
+        FileUtils.setMappingThreshold(this.threshold);
+    }
+
+    @Test
+    void jsonWritesAfterMappedReload() {
+        File file = this.directory.resolve("large.json").toFile();
+        Json json = new Json(file);
+        json.putAll(entries());
+        assertTrue(file.length() >= THRESHOLD);
+
+        json.reload();
+        json.set("key0", "changed");
+        json.reload();
+        json.set("key1", "changed");
+
+        Json reread = new Json(file);
+        assertEquals("changed", reread.get("key0"));
+        assertEquals("changed", reread.get("key1"));
+        assertEquals("value499", reread.get("key499"));
+    }
+
+    @Test
+    void tomlWritesAfterMappedReload() {
+        File file = this.directory.resolve("large.toml").toFile();
+        Toml toml = new Toml(file);
+        toml.putAll(entries());
+        assertTrue(file.length() >= THRESHOLD);
+
+        toml.reload();
+        toml.set("key0", "changed");
+        toml.reload();
+        toml.set("key1", "changed");
+
+        Toml reread = new Toml(file);
+        assertEquals("changed", reread.get("key0"));
+        assertEquals("changed", reread.get("key1"));
+        assertEquals("value499", reread.get("key499"));
+    }
+
+    private static Map<String, Object> entries() {
+        Map<String, Object> entries = new LinkedHashMap<>();
+        for (int i = 0; i < 500; i++) {
+            entries.put("key" + i, "value" + i);
+        }
+        return entries;
+    }
+}
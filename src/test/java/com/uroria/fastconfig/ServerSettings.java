@@ -0,0 +1,43 @@
+package com.uroria.fastconfig;
+
+import java.util.List;
+
+@ConfigType
+public interface ServerSettings {
+    String name();
+
+    int maxPlayers();
+
+    @ConfigType.Key("use-ssl")
+    boolean ssl();
+
+    Long timeout();
+
+    double ratio();
+
+    @ConfigType.Key("say \"hi\"\\")
+    String greeting();
+
+    Mode mode();
+
+    Database database();
+
+    List<String> tags();
+
+    List<Database> replicas();
+
+    default String display() {
+        return name() + ":" + maxPlayers();
+    }
+
+    enum Mode {
+        FAST, SLOW
+    }
+
+    @ConfigType
+    interface Database {
+        String url();
+
+        int port();
+    }
+}
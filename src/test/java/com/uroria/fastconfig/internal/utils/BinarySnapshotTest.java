@@ -0,0 +1,44 @@
+package com.uroria.fastconfig.internal.utils;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class BinarySnapshotTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void roundTripsTree() throws IOException {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("text", "caf\u00E9 \uD83D\uDE00");
+        map.put("nested", new LinkedHashMap<>(Map.of("number", 42)));
+        File snapshot = this.directory.resolve("tree.snapshot").toFile();
+        FileFingerprint source = source();
+
+        BinarySnapshot.write(snapshot, BinarySnapshot.encode(source, map));
+        assertEquals(map, BinarySnapshot.read(snapshot, source));
+    }
+
+    @Test
+    void skipsLoneSurrogates() throws IOException {
+        FileFingerprint source = source();
+        assertNull(BinarySnapshot.encode(source, Map.of("text", "broken \uD83D")));
+        assertNull(BinarySnapshot.encode(source, Map.of("\uDE00", "key")));
+    }
+
+    private FileFingerprint source() throws IOException {
+        File file = this.directory.resolve("source.json").toFile();
+        Files.writeString(file.toPath(), "{}");
+        return FileFingerprint.stat(file).withChecksum(file);
+    }
+}
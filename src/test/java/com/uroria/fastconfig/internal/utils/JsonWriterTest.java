@@ -0,0 +1,41 @@
+package com.uroria.fastconfig.internal.utils;
+
+import it.unimi.dsi.fastutil.doubles.DoubleArrayList;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class JsonWriterTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void formatsNumbersLikeOrgJson() throws IOException {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("whole", 1.0D);
+        map.put("fraction", 1.5D);
+        map.put("exponent", 1.0E10D);
+        map.put("float", 3.0F);
+        map.put("decimal", new BigDecimal("2.50"));
+        map.put("list", DoubleArrayList.wrap(new double[]{4.0D, 0.25D}));
+        map.put("nan", Double.NaN);
+
+        assertEquals("{\"whole\":1,\"fraction\":1.5,\"exponent\":1.0E10,\"float\":3,\"decimal\":2.5,"
+                + "\"list\":[4,0.25],\"nan\":null}", write(map));
+    }
+
+    private String write(Map<String, Object> map) throws IOException {
+        File file = this.directory.resolve("numbers.json").toFile();
+        JsonWriter.write(file, map, false);
+        return Files.readString(file.toPath());
+    }
+}
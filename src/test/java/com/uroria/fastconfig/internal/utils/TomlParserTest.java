@@ -0,0 +1,50 @@
+package com.uroria.fastconfig.internal.utils;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TomlParserTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void rejectsHeaderOfDottedTable() {
+        assertThrows(TomlException.class, () -> parse("[fruit]\napple.color = 'red'\n[fruit.apple]\n"));
+        assertEquals(Map.of("fruit", Map.of("apple", Map.of("color", "red", "texture", Map.of("smooth", true)))),
+                parse("[fruit]\napple.color = 'red'\n[fruit.apple.texture]\nsmooth = true\n"));
+    }
+
+    @Test
+    void rejectsLeadingZeros() {
+        assertThrows(TomlException.class, () -> parse("value = 01\n"));
+        assertThrows(TomlException.class, () -> parse("value = -0_1\n"));
+        assertThrows(TomlException.class, () -> parse("value = 00.5\n"));
+        assertEquals(Map.of("value", 0), parse("value = -0\n"));
+        assertEquals(Map.of("value", 0.5D), parse("value = 0.5\n"));
+    }
+
+    @Test
+    void rejectsMultilineInlineTables() {
+        assertThrows(TomlException.class, () -> parse("table = { a = 1,\n b = 2 }\n"));
+        assertThrows(TomlException.class, () -> parse("table = {\n}\n"));
+        assertEquals(Map.of("table", Map.of("a", 1, "b", "x")), parse("table = { a = 1, b = 'x' }\n"));
+    }
+
+    @Test
+    void writerRejectsNullElements() {
+        Map<String, Object> map = Map.of("list", Arrays.asList("a", null));
+        assertThrows(IllegalArgumentException.class, () -> TomlWriter.write(this.directory.resolve("null.toml").toFile(), map));
+    }
+
+    private static Map<String, Object> parse(String document) {
+        return TomlParser.parse(document.getBytes(StandardCharsets.UTF_8));
+    }
+}